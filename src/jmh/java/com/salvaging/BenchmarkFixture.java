@@ -0,0 +1,273 @@
+package com.salvaging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.Skill;
+import net.runelite.api.WorldView;
+import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.OverheadTextChanged;
+import net.runelite.api.events.StatChanged;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.Notifier;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.ui.ClientToolbar;
+import net.runelite.client.ui.overlay.OverlayManager;
+
+/**
+ * A {@link SalvagingPlugin} wired to headless stand-ins for the RuneLite client,
+ * so handlers and overlays can be driven without a game.
+ *
+ * See {@link Stubs} for what the stand-ins cost: getWidget boxes its arguments,
+ * which shows up in allocation numbers for the cargo benchmarks.
+ */
+final class BenchmarkFixture
+{
+    static final int BOAT_WORLD_VIEW_ID = 7;
+    private static final int POPULATE_ROUNDS = 5;
+    static final int CARGO_USED = 42;
+    static final int CARGO_CAPACITY = 120;
+    // item kinds in the hold, one item per slot in turn
+    static final int[] CARGO_ITEM_IDS = {995, 1511, 2349, 1623};
+    static final String ITEM_NAME = "Salvage";
+
+    // Pre-boxed animation ids handed out by the stubs
+    static final Integer ANIM_IDLE = -1;
+    static final Integer ANIM_HAULING = 13576;
+    static final Integer ANIM_CLEANING = 13599;
+
+    final Client client;
+    final WorldView boat;
+    final Player player;
+    final NPC[] crew;
+    final NPC stranger;
+
+    // the hold's container as the game sends it, CARGO_USED items one per slot;
+    // populate ends with the hold like this
+    final ItemContainerChanged cargoHoldChanged;
+    // ...and starts with the last hooks' worth of slots still empty
+    private final ItemContainerChanged cargoHoldBefore;
+
+    final SalvagingPlugin plugin;
+
+    private final HeadlessInjector injector = new HeadlessInjector();
+    private final Widget[] cargoWidgets = new Widget[30];
+
+    BenchmarkFixture(int crewCount)
+    {
+        // the render benchmarks time each overlay on its own, building and painting its panel
+        this(crewCount, false, false);
+    }
+
+    BenchmarkFixture(int crewCount, boolean hudMode, boolean cachePanelImages)
+    {
+        Map<String, Object> boatAnswers = new HashMap<>();
+        boatAnswers.put("isTopLevel", Boolean.FALSE);
+        boatAnswers.put("getId", BOAT_WORLD_VIEW_ID);
+        boat = Stubs.stub(WorldView.class, boatAnswers);
+
+        Map<String, Object> playerAnswers = new HashMap<>();
+        playerAnswers.put("getWorldView", boat);
+        playerAnswers.put("getAnimation", ANIM_HAULING);
+        playerAnswers.put("getName", "Salvager");
+        player = Stubs.stub(Player.class, playerAnswers);
+
+        crew = new NPC[crewCount];
+        for (int i = 0; i < crewCount; i++)
+        {
+            crew[i] = npc(1000 + i, i + 1, SalvageCrewRoster.CREW_NAMES.get(i % SalvageCrewRoster.CREW_NAMES.size()));
+        }
+        stranger = npc(9999, 500, "Pirate");
+
+        buildCargoHold();
+        cargoHoldChanged = buildCargoContainer(CARGO_USED);
+        cargoHoldBefore = buildCargoContainer(Math.max(0, CARGO_USED - crewCount * POPULATE_ROUNDS));
+
+        Map<String, Object> clientAnswers = new HashMap<>();
+        clientAnswers.put("getLocalPlayer", player);
+        clientAnswers.put("getTopLevelWorldView", boat);
+        clientAnswers.put("getWidget", (Stubs.Answer) args ->
+        {
+            int group = (Integer) args[0];
+            int child = (Integer) args[1];
+            if (group != SalvageCargoTracker.CARGOHOLD_GROUP_ID || child < 0 || child >= cargoWidgets.length)
+            {
+                return null;
+            }
+            return cargoWidgets[child];
+        });
+        client = Stubs.stub(Client.class, clientAnswers);
+
+        injector.bind(Client.class, client)
+                .bind(ClientThread.class, new ClientThread()
+                {
+                    @Override
+                    public void invokeLater(Runnable r)
+                    {
+                        // nothing drains a queue headless; run deferred work (the hold's
+                        // label reads) right away so it is timed with its event
+                        r.run();
+                    }
+                })
+                .bind(SalvagingConfig.class, new SalvagingConfig()
+                {
+                    @Override
+                    public int cargoFullWarningSeconds()
+                    {
+                        // nothing to notify headless
+                        return 0;
+                    }
+
+                    @Override
+                    public boolean hudMode()
+                    {
+                        return hudMode;
+                    }
+
+                    @Override
+                    public boolean cachePanelImages()
+                    {
+                        return cachePanelImages;
+                    }
+
+                    @Override
+                    public boolean showPerfOverlay()
+                    {
+                        // only drawn where a benchmark renders it
+                        return true;
+                    }
+                })
+                .bind(Notifier.class, null)
+                .bind(SalvageItemNames.class, new SalvageItemNames(null)
+                {
+                    @Override
+                    String name(int itemId)
+                    {
+                        return ITEM_NAME;
+                    }
+                })
+                .bind(SalvagePriceCache.class, new SalvagePriceCache(null)
+                {
+                    @Override
+                    int price(int itemId)
+                    {
+                        // no GE headless
+                        return 0;
+                    }
+
+                    @Override
+                    void refreshIfDue()
+                    {
+                    }
+                })
+                // only used by startUp / shutDown, which benchmarks never call
+                .bind(OverlayManager.class, null)
+                .bind(ClientToolbar.class, null)
+                // only ::salvageperf writes its report through it
+                .bind(ScheduledExecutorService.class, null);
+
+        plugin = getInstance(SalvagingPlugin.class);
+    }
+
+    /**
+     * Puts the plugin into a typical mid-session state: on a boat, crew spawned,
+     * some hooks landed and counted in the hold, and the crystal extractor on cooldown.
+     */
+    BenchmarkFixture populate()
+    {
+        plugin.onStatChanged(new StatChanged(Skill.SAILING, 1000, 10, 10));
+
+        for (NPC npc : crew)
+        {
+            plugin.onNpcSpawned(new NpcSpawned(npc));
+
+            AnimationChanged anim = new AnimationChanged();
+            anim.setActor(npc);
+            plugin.onAnimationChanged(anim);
+        }
+
+        AnimationChanged playerAnim = new AnimationChanged();
+        playerAnim.setActor(player);
+        plugin.onAnimationChanged(playerAnim);
+
+        plugin.onItemContainerChanged(cargoHoldBefore);
+        for (int round = 0; round < POPULATE_ROUNDS; round++)
+        {
+            plugin.onChatMessage(chat("You gain some experience by watching your crew work."));
+            for (NPC npc : crew)
+            {
+                plugin.onOverheadTextChanged(new OverheadTextChanged(npc, "Managed to hook some salvage!"));
+            }
+            plugin.onGameTick(new GameTick());
+        }
+
+        plugin.onItemContainerChanged(cargoHoldChanged);
+        plugin.onChatMessage(chat("Your crystal extractor has harvested a crystal mote!"));
+        plugin.onGameTick(new GameTick());
+        return this;
+    }
+
+    <T> T getInstance(Class<T> type)
+    {
+        return injector.getInstance(type);
+    }
+
+    static ChatMessage chat(String message)
+    {
+        ChatMessage chat = new ChatMessage();
+        chat.setType(ChatMessageType.GAMEMESSAGE);
+        chat.setMessage(message);
+        return chat;
+    }
+
+    private NPC npc(int id, int index, String name)
+    {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getId", id);
+        answers.put("getIndex", index);
+        answers.put("getName", name);
+        answers.put("getWorldView", boat);
+        answers.put("getAnimation", ANIM_HAULING);
+        return Stubs.stub(NPC.class, answers);
+    }
+
+    private void buildCargoHold()
+    {
+        cargoWidgets[0] = widget(null);
+        cargoWidgets[SalvageCargoTracker.CARGOHOLD_USED_CHILD] = widget(Integer.toString(CARGO_USED));
+        cargoWidgets[SalvageCargoTracker.CARGOHOLD_CAP_CHILD] = widget(Integer.toString(CARGO_CAPACITY));
+    }
+
+    private static ItemContainerChanged buildCargoContainer(int used)
+    {
+        Item[] items = new Item[CARGO_USED];
+        for (int i = 0; i < items.length; i++)
+        {
+            items[i] = i < used ? new Item(CARGO_ITEM_IDS[i % CARGO_ITEM_IDS.length], 1) : new Item(-1, 0);
+        }
+
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getId", InventoryID.SAILING_BOAT_1_CARGOHOLD);
+        answers.put("getItems", items);
+        return new ItemContainerChanged(InventoryID.SAILING_BOAT_1_CARGOHOLD, Stubs.stub(ItemContainer.class, answers));
+    }
+
+    private static Widget widget(String text)
+    {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("isHidden", Boolean.FALSE);
+        answers.put("getText", text);
+        return Stubs.stub(Widget.class, answers);
+    }
+}
@@ -0,0 +1,152 @@
+package com.salvaging;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.OverheadTextChanged;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.gameval.InventoryID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the plugin's event handlers for a single event, with a four man crew on board.
+ * With {@code background}, the stats worker runs and only the client thread's share
+ * (classifying and posting) is measured; without it, the stats are applied inline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventHandlerBenchmark
+{
+    private static final int CREW = 4;
+
+    @Param({"false", "true"})
+    public boolean background;
+
+    private BenchmarkFixture fixture;
+    private SalvagingPlugin plugin;
+
+    private ChatMessage unrelatedChat;
+    private ChatMessage crewXpChat;
+    private ChatMessage cargoFullChat;
+    private AnimationChanged playerAnimation;
+    private AnimationChanged crewAnimation;
+    private AnimationChanged strangerAnimation;
+    private OverheadTextChanged crewHook;
+    private OverheadTextChanged strangerTalk;
+    private ItemContainerChanged inventoryChanged;
+
+    @Setup
+    public void setUp()
+    {
+        fixture = new BenchmarkFixture(CREW).populate();
+        plugin = fixture.plugin;
+        if (background)
+        {
+            fixture.getInstance(SalvageStatsWorker.class).start();
+        }
+
+        unrelatedChat = BenchmarkFixture.chat("<col=ef1020>Your <col=ffffff>Rune platebody</col> has been repaired.</col>");
+        crewXpChat = BenchmarkFixture.chat("You gain some experience by watching your crew work.");
+        cargoFullChat = BenchmarkFixture.chat("Your crewmate on the salvaging hook cannot salvage as the cargo hold is full.");
+
+        playerAnimation = new AnimationChanged();
+        playerAnimation.setActor(fixture.player);
+        crewAnimation = new AnimationChanged();
+        crewAnimation.setActor(fixture.crew[0]);
+        strangerAnimation = new AnimationChanged();
+        strangerAnimation.setActor(fixture.stranger);
+
+        crewHook = new OverheadTextChanged(fixture.crew[0], "Managed to hook some salvage!");
+        strangerTalk = new OverheadTextChanged(fixture.stranger, "Arr, ye'll walk the plank!");
+
+        // open the hold so its container updates re-read the labels too
+        WidgetLoaded holdLoaded = new WidgetLoaded();
+        holdLoaded.setGroupId(SalvageCargoTracker.CARGOHOLD_GROUP_ID);
+        plugin.onWidgetLoaded(holdLoaded);
+        inventoryChanged = new ItemContainerChanged(InventoryID.INV, null);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        fixture.getInstance(SalvageStatsWorker.class).stop();
+    }
+
+    @Benchmark
+    public void chatUnrelated()
+    {
+        plugin.onChatMessage(unrelatedChat);
+    }
+
+    @Benchmark
+    public void chatCrewXp()
+    {
+        plugin.onChatMessage(crewXpChat);
+    }
+
+    @Benchmark
+    public void chatCargoFull()
+    {
+        plugin.onChatMessage(cargoFullChat);
+    }
+
+    @Benchmark
+    public void animationPlayer()
+    {
+        plugin.onAnimationChanged(playerAnimation);
+    }
+
+    @Benchmark
+    public void animationCrew()
+    {
+        plugin.onAnimationChanged(crewAnimation);
+    }
+
+    @Benchmark
+    public void animationStranger()
+    {
+        plugin.onAnimationChanged(strangerAnimation);
+    }
+
+    @Benchmark
+    public void overheadCrewHook()
+    {
+        plugin.onOverheadTextChanged(crewHook);
+    }
+
+    @Benchmark
+    public void overheadStranger()
+    {
+        plugin.onOverheadTextChanged(strangerTalk);
+    }
+
+    @Benchmark
+    public void cargoHoldUpdate()
+    {
+        // same items every time, so this is the diff with nothing gained, plus
+        // the label reads the open hold defers to after it
+        plugin.onItemContainerChanged(fixture.cargoHoldChanged);
+    }
+
+    @Benchmark
+    public void containerUnrelated()
+    {
+        plugin.onItemContainerChanged(inventoryChanged);
+    }
+}
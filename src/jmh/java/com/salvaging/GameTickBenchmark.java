@@ -0,0 +1,45 @@
+package com.salvaging;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.events.GameTick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one game tick for a growing crew.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameTickBenchmark
+{
+    @Param({"0", "2", "5", "10"})
+    public int crewCount;
+
+    private SalvagingPlugin plugin;
+    private final GameTick tick = new GameTick();
+
+    @Setup
+    public void setUp()
+    {
+        plugin = new BenchmarkFixture(crewCount).populate().plugin;
+    }
+
+    @Benchmark
+    public void gameTick()
+    {
+        plugin.onGameTick(tick);
+    }
+}
@@ -0,0 +1,81 @@
+package com.salvaging;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Inject;
+
+/**
+ * Minimal stand-in for the plugin's Guice injector: explicitly bound instances,
+ * everything else built through its {@code @Inject} constructor and fields.
+ * Every type is a singleton, like the plugin's own classes.
+ */
+final class HeadlessInjector
+{
+    private final Map<Class<?>, Object> bindings = new HashMap<>();
+
+    /**
+     * Binds a type to an instance; {@code null} is allowed for dependencies the caller never uses.
+     */
+    <T> HeadlessInjector bind(Class<T> type, T instance)
+    {
+        bindings.put(type, instance);
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T getInstance(Class<T> type)
+    {
+        if (bindings.containsKey(type))
+        {
+            return (T) bindings.get(type);
+        }
+
+        try
+        {
+            Constructor<?> ctor = injectableConstructor(type);
+            ctor.setAccessible(true);
+
+            Class<?>[] params = ctor.getParameterTypes();
+            Object[] args = new Object[params.length];
+            for (int i = 0; i < params.length; i++)
+            {
+                args[i] = getInstance(params[i]);
+            }
+
+            T instance = (T) ctor.newInstance(args);
+            bindings.put(type, instance);
+
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass())
+            {
+                for (Field field : c.getDeclaredFields())
+                {
+                    if (field.isAnnotationPresent(Inject.class) && !Modifier.isStatic(field.getModifiers()))
+                    {
+                        field.setAccessible(true);
+                        field.set(instance, getInstance(field.getType()));
+                    }
+                }
+            }
+            return instance;
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("unable to build " + type.getName(), ex);
+        }
+    }
+
+    private static Constructor<?> injectableConstructor(Class<?> type) throws NoSuchMethodException
+    {
+        for (Constructor<?> ctor : type.getDeclaredConstructors())
+        {
+            if (ctor.isAnnotationPresent(Inject.class))
+            {
+                return ctor;
+            }
+        }
+        return type.getDeclaredConstructor();
+    }
+}
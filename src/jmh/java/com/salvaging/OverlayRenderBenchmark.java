@@ -0,0 +1,146 @@
+package com.salvaging;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.events.GameTick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of rendering one frame of each overlay into an off-screen image.
+ * With {@code cachePanelImages}, frames without a new snapshot only blit the
+ * panel drawn last; without it, every frame builds and paints the panel.
+ *
+ * The HUD is timed both on a frame with the snapshot it was last built from and
+ * on one with a new snapshot, published before each call outside the timing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OverlayRenderBenchmark
+{
+    private static final GameTick TICK = new GameTick();
+
+    @Param({"false", "true"})
+    public boolean cachePanelImages;
+
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    private SalvagingOverlay statusOverlay;
+    private SalvageCargoOverlay cargoOverlay;
+    private SalvageCrewOverlay crewOverlay;
+    private SalvageTimingOverlay timingOverlay;
+    private SalvageYieldOverlay yieldOverlay;
+    private SalvagePerfOverlay perfOverlay;
+
+    // the HUD needs HUD mode, the overlays above need it off
+    private SalvagingPlugin hudPlugin;
+    private SalvageSessionStats hudStats;
+    private SalvageHudOverlay hudOverlay;
+
+    /**
+     * Publishes a new snapshot before every call, so the HUD has to rebuild its panel.
+     */
+    @State(Scope.Thread)
+    public static class NewSnapshot
+    {
+        @Setup(Level.Invocation)
+        public void publish(OverlayRenderBenchmark benchmark)
+        {
+            benchmark.hudStats.apply(SalvageSessionStats.REFRESH, 0, 0, 0, 0, 0);
+            benchmark.hudPlugin.onGameTick(TICK);
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        BenchmarkFixture fixture = new BenchmarkFixture(4, false, cachePanelImages).populate();
+        statusOverlay = fixture.getInstance(SalvagingOverlay.class);
+        cargoOverlay = fixture.getInstance(SalvageCargoOverlay.class);
+        crewOverlay = fixture.getInstance(SalvageCrewOverlay.class);
+        timingOverlay = fixture.getInstance(SalvageTimingOverlay.class);
+        yieldOverlay = fixture.getInstance(SalvageYieldOverlay.class);
+        perfOverlay = fixture.getInstance(SalvagePerfOverlay.class);
+
+        BenchmarkFixture hudFixture = new BenchmarkFixture(4, true, cachePanelImages).populate();
+        hudPlugin = hudFixture.plugin;
+        hudStats = hudFixture.getInstance(SalvageSessionStats.class);
+        hudOverlay = hudFixture.getInstance(SalvageHudOverlay.class);
+
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public Dimension statusOverlay()
+    {
+        return statusOverlay.render(graphics);
+    }
+
+    @Benchmark
+    public Dimension cargoOverlay()
+    {
+        return cargoOverlay.render(graphics);
+    }
+
+    @Benchmark
+    public Dimension crewOverlay()
+    {
+        return crewOverlay.render(graphics);
+    }
+
+    @Benchmark
+    public Dimension timingOverlay()
+    {
+        return timingOverlay.render(graphics);
+    }
+
+    @Benchmark
+    public Dimension yieldOverlay()
+    {
+        return yieldOverlay.render(graphics);
+    }
+
+    // never cached: it refreshes its numbers once a second instead
+    @Benchmark
+    public Dimension perfOverlay()
+    {
+        return perfOverlay.render(graphics);
+    }
+
+    @Benchmark
+    public Dimension hudUnchangedFrame()
+    {
+        return hudOverlay.render(graphics);
+    }
+
+    @Benchmark
+    public Dimension hudChangedFrame(NewSnapshot newSnapshot)
+    {
+        return hudOverlay.render(graphics);
+    }
+}
@@ -0,0 +1,775 @@
+package com.salvaging;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.Objects;
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.NPC;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.Player;
+import net.runelite.api.Skill;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.OverheadTextChanged;
+import net.runelite.api.events.StatChanged;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.Notifier;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.ui.ClientToolbar;
+import net.runelite.client.ui.overlay.OverlayManager;
+
+/**
+ * Replays a trace written by {@link SalvageEventRecorder} into a fresh
+ * {@link SalvagingPlugin} as fast as possible, without a RuneLite client.
+ *
+ * <pre>
+ * ./gradlew replayTrace -Ptrace=path/to/trace.bin [-Pverify] [-Piterations=N]
+ * </pre>
+ *
+ * Every iteration restores a new plugin to the journal session the trace starts
+ * with, replays the whole trace into it and reports events/sec.
+ * With verify, the final state of the first iteration is compared with the state
+ * recorded at the end of the trace, and the process exits with status 1 on mismatch.
+ */
+public final class SalvageTraceReplay
+{
+    private static final GameTick TICK = new GameTick();
+
+    /**
+     * One recorded event, re-applied against a replay session.
+     */
+    private interface Step
+    {
+        void apply(Session session);
+    }
+
+    private final List<Step> steps = new ArrayList<>();
+    private int cargoCapacityOverride;
+    private long sessionTick;
+    private final List<long[]> sessionRecords = new ArrayList<>();
+    private Expected expected;
+
+    public static void main(String[] args) throws IOException
+    {
+        File trace = null;
+        boolean verify = false;
+        int iterations = 5;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "--verify":
+                    verify = true;
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    trace = new File(args[i]);
+                    break;
+            }
+        }
+
+        if (trace == null)
+        {
+            System.err.println("usage: SalvageTraceReplay <trace.bin> [--verify] [--iterations N]");
+            System.exit(2);
+        }
+
+        SalvageTraceReplay replay = new SalvageTraceReplay();
+        replay.load(trace);
+        System.out.printf("%s: %d events%n", trace.getName(), replay.steps.size());
+
+        boolean ok = true;
+        for (int i = 0; i < iterations; i++)
+        {
+            Session session = replay.newSession();
+
+            long start = System.nanoTime();
+            for (Step step : replay.steps)
+            {
+                step.apply(session);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("iteration %d: %.3f ms, %.0f events/sec%n",
+                    i + 1, elapsed / 1e6, replay.steps.size() / (elapsed / 1e9));
+
+            if (verify && i == 0)
+            {
+                ok = replay.verify(session.plugin.getSnapshot());
+            }
+        }
+
+        if (!ok)
+        {
+            System.exit(1);
+        }
+    }
+
+    // --------- loading ---------
+
+    private void load(File file) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != SalvageEventRecorder.MAGIC)
+            {
+                throw new IOException("not a salvaging trace: " + file);
+            }
+            int version = in.readInt();
+            if (version != SalvageEventRecorder.VERSION)
+            {
+                throw new IOException("unsupported trace version " + version);
+            }
+            cargoCapacityOverride = in.readInt();
+
+            sessionTick = in.readLong();
+            int records = in.readInt();
+            for (int i = 0; i < records; i++)
+            {
+                // tick, type, crew id, value
+                sessionRecords.add(new long[]{in.readLong(), in.readByte(), in.readByte(), in.readInt()});
+            }
+
+            while (true)
+            {
+                int type;
+                try
+                {
+                    type = in.readByte();
+                }
+                catch (EOFException ex)
+                {
+                    // trace cut short (client closed without stopping), still replayable
+                    return;
+                }
+
+                if (type == SalvageEventRecorder.EXPECTED)
+                {
+                    expected = Expected.read(in);
+                    return;
+                }
+                steps.add(readStep(type, in));
+            }
+        }
+    }
+
+    private static Step readStep(int type, DataInputStream in) throws IOException
+    {
+        switch (type)
+        {
+            case SalvageEventRecorder.GAME_TICK:
+            {
+                int worldView = in.readInt();
+                return s ->
+                {
+                    s.localPlayer.worldView = s.worldView(worldView);
+                    s.plugin.onGameTick(TICK);
+                };
+            }
+            case SalvageEventRecorder.CHAT:
+            {
+                ChatMessage chat = new ChatMessage();
+                chat.setType(ChatMessageType.valueOf(in.readUTF()));
+                chat.setMessage(in.readUTF());
+                return s -> s.plugin.onChatMessage(chat);
+            }
+            case SalvageEventRecorder.ANIMATION:
+            {
+                ActorRef ref = ActorRef.read(in);
+                int animation = in.readInt();
+                LocalPoint location = readNullableLocation(in, ref);
+                return s ->
+                {
+                    AnimationChanged event = new AnimationChanged();
+                    event.setActor(s.animate(ref, animation, location));
+                    s.plugin.onAnimationChanged(event);
+                };
+            }
+            case SalvageEventRecorder.OVERHEAD_TEXT:
+            {
+                ActorRef ref = ActorRef.read(in);
+                String text = readNullableUTF(in);
+                LocalPoint location = readNullableLocation(in, ref);
+                return s -> s.plugin.onOverheadTextChanged(new OverheadTextChanged(s.move(ref, location), text));
+            }
+            case SalvageEventRecorder.NPC_SPAWNED:
+            {
+                int worldView = in.readInt();
+                int index = in.readInt();
+                int id = in.readInt();
+                String name = readNullableUTF(in);
+                return s -> s.plugin.onNpcSpawned(new NpcSpawned(s.spawn(worldView, index, id, name)));
+            }
+            case SalvageEventRecorder.NPC_DESPAWNED:
+            {
+                ActorRef ref = ActorRef.read(in);
+                return s ->
+                {
+                    NPC npc = (NPC) s.actor(ref);
+                    s.plugin.onNpcDespawned(new NpcDespawned(npc));
+                    s.npcs.remove(ref.key());
+                };
+            }
+            case SalvageEventRecorder.SAILING_XP:
+                return s -> s.plugin.onStatChanged(new StatChanged(Skill.SAILING, 0, 0, 0));
+            case SalvageEventRecorder.WIDGET_LOADED:
+            {
+                WidgetLoaded event = new WidgetLoaded();
+                event.setGroupId(in.readInt());
+                return s -> s.plugin.onWidgetLoaded(event);
+            }
+            case SalvageEventRecorder.WIDGET_CLOSED:
+            {
+                WidgetClosed event = new WidgetClosed(in.readInt(), 0, false);
+                return s -> s.plugin.onWidgetClosed(event);
+            }
+            case SalvageEventRecorder.CARGO_HOLD:
+            {
+                CargoHold hold = CargoHold.read(in);
+                return s ->
+                {
+                    s.showCargoHold(hold);
+                    s.cargo.parseHold();
+                };
+            }
+            case SalvageEventRecorder.CARGO_ITEMS:
+            {
+                int containerId = in.readInt();
+                Item[] items = new Item[in.readInt()];
+                for (int i = 0; i < items.length; i++)
+                {
+                    items[i] = new Item(in.readInt(), in.readInt());
+                }
+                Map<String, Object> answers = new HashMap<>();
+                answers.put("getId", containerId);
+                answers.put("getItems", items);
+                ItemContainerChanged event = new ItemContainerChanged(containerId, Stubs.stub(ItemContainer.class, answers));
+                return s -> s.plugin.onItemContainerChanged(event);
+            }
+            case SalvageEventRecorder.OBJECT_SPAWNED:
+            {
+                ObjectRef ref = ObjectRef.read(in);
+                String name = readNullableUTF(in);
+                boolean multiloc = in.readBoolean();
+                return s ->
+                {
+                    // what the definition said at the time; a multiloc's may differ next spawn
+                    s.define(ref.id, name, multiloc);
+                    GameObjectSpawned event = new GameObjectSpawned();
+                    event.setGameObject(s.object(ref));
+                    s.plugin.onGameObjectSpawned(event);
+                };
+            }
+            case SalvageEventRecorder.OBJECT_DESPAWNED:
+            {
+                ObjectRef ref = ObjectRef.read(in);
+                return s ->
+                {
+                    GameObjectDespawned event = new GameObjectDespawned();
+                    event.setGameObject(s.object(ref));
+                    s.plugin.onGameObjectDespawned(event);
+                };
+            }
+            case SalvageEventRecorder.GAME_STATE:
+            {
+                GameStateChanged event = new GameStateChanged();
+                event.setGameState(GameState.valueOf(in.readUTF()));
+                return s -> s.plugin.onGameStateChanged(event);
+            }
+            default:
+                throw new IOException("unknown trace record type " + type);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static LocalPoint readNullableLocation(DataInputStream in, ActorRef ref) throws IOException
+    {
+        return in.readBoolean() ? new LocalPoint(in.readInt(), in.readInt(), ref.worldView) : null;
+    }
+
+    // --------- verification ---------
+
+    private boolean verify(SalvageSnapshot actual)
+    {
+        if (expected == null)
+        {
+            System.out.println("verify: trace has no recorded final state, skipped");
+            return true;
+        }
+
+        List<String> diffs = new ArrayList<>();
+        check(diffs, "onBoat", expected.onBoat, actual.isOnBoat());
+        check(diffs, "playerActivity", expected.playerActivity, actual.getPlayerActivity().name());
+        check(diffs, "cargoUsed", expected.cargoUsed, actual.getCargoUsed());
+        check(diffs, "cargoMax", expected.cargoMax, actual.getCargoMax());
+        check(diffs, "cargoFull", expected.cargoFull, actual.isCargoFull());
+        check(diffs, "trackedCrew", expected.trackedCrew, actual.getTrackedCrew());
+        check(diffs, "activeCrew", expected.activeCrew, actual.getActiveCrew());
+        check(diffs, "totalSalvages", expected.totalSalvages, actual.getTotalSalvages());
+        check(diffs, "avgIntervalSeconds", expected.avgIntervalSeconds, actual.getAvgIntervalSeconds());
+        check(diffs, "secondsSinceLastSalvage", expected.secondsSinceLastSalvage, actual.getSecondsSinceLastSalvage());
+        check(diffs, "crystalCooldownRemaining", expected.crystalCooldownRemaining, actual.getCrystalCooldownRemaining());
+
+        Map<String, Integer> actualCrew = new HashMap<>();
+        for (SalvageSnapshot.CrewRow row : actual.getCrewRows())
+        {
+            actualCrew.put(row.getName(), row.getCount());
+        }
+        check(diffs, "crew hooks", expected.crewCounts, actualCrew);
+
+        List<String> actualFacilities = new ArrayList<>();
+        for (SalvageSnapshot.FacilityRow row : actual.getFacilities())
+        {
+            actualFacilities.add(facility(row.getKind().name(), row.getNumber(), row.getUses(),
+                    row.getCooldownRemaining(), row.isActive()));
+        }
+        check(diffs, "facilities", expected.facilities, actualFacilities);
+
+        if (diffs.isEmpty())
+        {
+            System.out.println("verify: OK");
+            return true;
+        }
+
+        for (String diff : diffs)
+        {
+            System.out.println("verify: MISMATCH " + diff);
+        }
+        return false;
+    }
+
+    private static String facility(String kind, int number, int uses, int cooldownRemaining, boolean active)
+    {
+        return kind + " " + number + " (uses " + uses + ", cooldown " + cooldownRemaining + (active ? ", active)" : ")");
+    }
+
+    private static void check(List<String> diffs, String what, Object expected, Object actual)
+    {
+        if (!Objects.equals(expected, actual))
+        {
+            diffs.add(what + ": expected " + expected + ", got " + actual);
+        }
+    }
+
+    // --------- trace records ---------
+
+    private static final class ActorRef
+    {
+        byte kind;
+        int worldView;
+        int index;
+        int id;
+
+        static ActorRef read(DataInputStream in) throws IOException
+        {
+            ActorRef ref = new ActorRef();
+            ref.kind = in.readByte();
+            if (ref.kind == SalvageEventRecorder.ACTOR_NONE)
+            {
+                return ref;
+            }
+
+            ref.worldView = in.readInt();
+            if (ref.kind == SalvageEventRecorder.ACTOR_NPC)
+            {
+                ref.index = in.readInt();
+                ref.id = in.readInt();
+            }
+            return ref;
+        }
+
+        long key()
+        {
+            return npcKey(worldView, index);
+        }
+    }
+
+    private static final class ObjectRef
+    {
+        int worldView;
+        int id;
+        int plane;
+        int x;
+        int y;
+
+        static ObjectRef read(DataInputStream in) throws IOException
+        {
+            ObjectRef ref = new ObjectRef();
+            ref.worldView = in.readInt();
+            ref.id = in.readInt();
+            ref.plane = in.readInt();
+            ref.x = in.readInt();
+            ref.y = in.readInt();
+            return ref;
+        }
+    }
+
+    private static long npcKey(int worldView, int index)
+    {
+        return ((long) worldView << 32) | (index & 0xffffffffL);
+    }
+
+    private static final class CargoHold
+    {
+        final byte[] states = new byte[SalvageEventRecorder.CARGO_HOLD_CHILDREN];
+        final String[] texts = new String[SalvageEventRecorder.CARGO_HOLD_CHILDREN];
+
+        static CargoHold read(DataInputStream in) throws IOException
+        {
+            CargoHold hold = new CargoHold();
+            for (int i = 0; i < hold.states.length; i++)
+            {
+                hold.states[i] = in.readByte();
+                if (hold.states[i] != SalvageEventRecorder.WIDGET_MISSING)
+                {
+                    hold.texts[i] = readNullableUTF(in);
+                }
+            }
+            return hold;
+        }
+    }
+
+    private static final class Expected
+    {
+        boolean onBoat;
+        String playerActivity;
+        int cargoUsed;
+        int cargoMax;
+        boolean cargoFull;
+        int trackedCrew;
+        int activeCrew;
+        int totalSalvages;
+        double avgIntervalSeconds;
+        int secondsSinceLastSalvage;
+        int crystalCooldownRemaining;
+        final Map<String, Integer> crewCounts = new HashMap<>();
+        // in snapshot order, see facility
+        final List<String> facilities = new ArrayList<>();
+
+        static Expected read(DataInputStream in) throws IOException
+        {
+            Expected e = new Expected();
+            e.onBoat = in.readBoolean();
+            e.playerActivity = in.readUTF();
+            e.cargoUsed = in.readInt();
+            e.cargoMax = in.readInt();
+            e.cargoFull = in.readBoolean();
+            e.trackedCrew = in.readInt();
+            e.activeCrew = in.readInt();
+            e.totalSalvages = in.readInt();
+            e.avgIntervalSeconds = in.readDouble();
+            e.secondsSinceLastSalvage = in.readInt();
+            e.crystalCooldownRemaining = in.readInt();
+
+            int rows = in.readInt();
+            for (int i = 0; i < rows; i++)
+            {
+                e.crewCounts.put(in.readUTF(), in.readInt());
+            }
+
+            int facilities = in.readInt();
+            for (int i = 0; i < facilities; i++)
+            {
+                e.facilities.add(facility(in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readBoolean()));
+            }
+            return e;
+        }
+    }
+
+    // --------- replay session ---------
+
+    private Session newSession()
+    {
+        Session session = new Session(cargoCapacityOverride);
+        for (long[] record : sessionRecords)
+        {
+            session.plugin.restoreSessionRecord(record[0], (int) record[1], (int) record[2], (int) record[3]);
+        }
+        session.plugin.finishSessionRestore(sessionTick);
+        return session;
+    }
+
+    /**
+     * A fresh plugin plus the stub client state the trace is replayed against.
+     */
+    private static final class Session
+    {
+        final SalvagingPlugin plugin;
+        final SalvageCargoTracker cargo;
+
+        final Map<Integer, WorldView> worldViews = new HashMap<>();
+        final Map<Long, MutableActor> npcs = new HashMap<>();
+        final Map<Integer, MutableActor> otherPlayers = new HashMap<>();
+        final MutableActor localPlayer;
+        final Widget[] cargoWidgets = new Widget[SalvageEventRecorder.CARGO_HOLD_CHILDREN];
+        // object definitions as of the latest spawn of each id
+        final Map<Integer, ObjectComposition> definitions = new HashMap<>();
+
+        Session(int cargoCapacityOverride)
+        {
+            localPlayer = new MutableActor();
+            localPlayer.worldView = worldView(-1);
+            localPlayer.actor = playerStub(localPlayer);
+
+            Map<String, Object> clientAnswers = new HashMap<>();
+            clientAnswers.put("getLocalPlayer", localPlayer.actor);
+            clientAnswers.put("getTopLevelWorldView", worldView(-1));
+            // never logged in, so the replayed login doesn't open a journal
+            clientAnswers.put("getAccountHash", -1L);
+            clientAnswers.put("getWidget", (Stubs.Answer) args ->
+            {
+                int group = (Integer) args[0];
+                int child = (Integer) args[1];
+                if (group != SalvageCargoTracker.CARGOHOLD_GROUP_ID || child < 0 || child >= cargoWidgets.length)
+                {
+                    return null;
+                }
+                return cargoWidgets[child];
+            });
+            clientAnswers.put("getObjectDefinition", (Stubs.Answer) args -> definitions.get((Integer) args[0]));
+            Client client = Stubs.stub(Client.class, clientAnswers);
+
+            HeadlessInjector injector = new HeadlessInjector()
+                    .bind(Client.class, client)
+                    .bind(ClientThread.class, new ClientThread()
+                    {
+                        @Override
+                        public void invokeLater(Runnable r)
+                        {
+                            // deferred cargo reads are replayed from CARGO_HOLD records instead
+                        }
+                    })
+                    .bind(SalvagingConfig.class, new SalvagingConfig()
+                    {
+                        @Override
+                        public int cargoCapacityOverride()
+                        {
+                            return cargoCapacityOverride;
+                        }
+
+                        @Override
+                        public int cargoFullWarningSeconds()
+                        {
+                            // nothing to notify headless
+                            return 0;
+                        }
+                    })
+                    .bind(Notifier.class, null)
+                    // nothing here renders the yield overlay
+                    .bind(SalvageItemNames.class, null)
+                    .bind(SalvagePriceCache.class, new SalvagePriceCache(null)
+                    {
+                        @Override
+                        int price(int itemId)
+                        {
+                            // no GE headless
+                            return 0;
+                        }
+
+                        @Override
+                        void refreshIfDue()
+                        {
+                        }
+                    })
+                    .bind(OverlayManager.class, null)
+                    .bind(ClientToolbar.class, null)
+                    // only ::salvageperf writes its report through it
+                    .bind(ScheduledExecutorService.class, null);
+
+            plugin = injector.getInstance(SalvagingPlugin.class);
+            cargo = injector.getInstance(SalvageCargoTracker.class);
+        }
+
+        WorldView worldView(int id)
+        {
+            return worldViews.computeIfAbsent(id, k ->
+            {
+                Map<String, Object> answers = new HashMap<>();
+                answers.put("getId", k);
+                answers.put("isTopLevel", k == -1);
+                return Stubs.stub(WorldView.class, answers);
+            });
+        }
+
+        NPC spawn(int worldView, int index, int id, String name)
+        {
+            MutableActor npc = new MutableActor();
+            npc.worldView = worldView(worldView);
+            npc.actor = npcStub(npc, index, id, name);
+            npcs.put(npcKey(worldView, index), npc);
+            return (NPC) npc.actor;
+        }
+
+        void define(int objectId, String name, boolean multiloc)
+        {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("getId", objectId);
+            answers.put("getName", name);
+            ObjectComposition composition = Stubs.stub(ObjectComposition.class, answers);
+            if (multiloc)
+            {
+                // the name recorded is the impostor's
+                Map<String, Object> base = new HashMap<>();
+                base.put("getId", objectId);
+                base.put("getImpostorIds", new int[]{objectId});
+                base.put("getImpostor", composition);
+                composition = Stubs.stub(ObjectComposition.class, base);
+            }
+            definitions.put(objectId, composition);
+        }
+
+        GameObject object(ObjectRef ref)
+        {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("getId", ref.id);
+            answers.put("getWorldView", worldView(ref.worldView));
+            answers.put("getPlane", ref.plane);
+            answers.put("getLocalLocation", new LocalPoint(ref.x, ref.y, ref.worldView));
+            return Stubs.stub(GameObject.class, answers);
+        }
+
+        net.runelite.api.Actor actor(ActorRef ref)
+        {
+            MutableActor a = mutable(ref);
+            return a != null ? a.actor : null;
+        }
+
+        net.runelite.api.Actor move(ActorRef ref, LocalPoint location)
+        {
+            MutableActor a = mutable(ref);
+            if (a == null)
+            {
+                return null;
+            }
+            a.location = location;
+            return a.actor;
+        }
+
+        net.runelite.api.Actor animate(ActorRef ref, int animation, LocalPoint location)
+        {
+            MutableActor a = mutable(ref);
+            if (a == null)
+            {
+                return null;
+            }
+            a.animation = animation;
+            a.location = location;
+            return a.actor;
+        }
+
+        private MutableActor mutable(ActorRef ref)
+        {
+            switch (ref.kind)
+            {
+                case SalvageEventRecorder.ACTOR_LOCAL_PLAYER:
+                    localPlayer.worldView = worldView(ref.worldView);
+                    return localPlayer;
+                case SalvageEventRecorder.ACTOR_PLAYER:
+                    return otherPlayers.computeIfAbsent(ref.worldView, wv ->
+                    {
+                        MutableActor p = new MutableActor();
+                        p.worldView = worldView(wv);
+                        p.actor = playerStub(p);
+                        return p;
+                    });
+                case SalvageEventRecorder.ACTOR_NPC:
+                {
+                    MutableActor npc = npcs.get(ref.key());
+                    if (npc == null)
+                    {
+                        // spawned before the recording started
+                        spawn(ref.worldView, ref.index, ref.id, null);
+                        npc = npcs.get(ref.key());
+                    }
+                    return npc;
+                }
+                default:
+                    return null;
+            }
+        }
+
+        void showCargoHold(CargoHold hold)
+        {
+            for (int child = 0; child < cargoWidgets.length; child++)
+            {
+                if (hold.states[child] == SalvageEventRecorder.WIDGET_MISSING)
+                {
+                    cargoWidgets[child] = null;
+                    continue;
+                }
+
+                cargoWidgets[child] = widget(hold.states[child] == SalvageEventRecorder.WIDGET_HIDDEN, hold.texts[child]);
+            }
+        }
+
+        private static net.runelite.api.Actor playerStub(MutableActor state)
+        {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("getWorldView", (Stubs.Answer) args -> state.worldView);
+            answers.put("getAnimation", (Stubs.Answer) args -> state.animation);
+            answers.put("getLocalLocation", (Stubs.Answer) args -> state.location);
+            return Stubs.stub(Player.class, answers);
+        }
+
+        private static net.runelite.api.Actor npcStub(MutableActor state, int index, int id, String name)
+        {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("getIndex", index);
+            answers.put("getId", id);
+            answers.put("getName", name);
+            answers.put("getWorldView", (Stubs.Answer) args -> state.worldView);
+            answers.put("getAnimation", (Stubs.Answer) args -> state.animation);
+            answers.put("getLocalLocation", (Stubs.Answer) args -> state.location);
+            return Stubs.stub(NPC.class, answers);
+        }
+
+        private static Widget widget(boolean hidden, String text)
+        {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("isHidden", hidden);
+            answers.put("getText", text);
+            return Stubs.stub(Widget.class, answers);
+        }
+    }
+
+    private static final class MutableActor
+    {
+        net.runelite.api.Actor actor;
+        WorldView worldView;
+        int animation = -1;
+        // as of its last animation or overhead text
+        LocalPoint location;
+    }
+}
@@ -0,0 +1,92 @@
+package com.salvaging;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * {@link Proxy} based stand-ins for RuneLite API interfaces, answering from a fixed table.
+ * No-arg calls returning pre-boxed values don't allocate; calls with arguments box them.
+ */
+final class Stubs
+{
+    /**
+     * Computed answer, for methods whose result depends on arguments or changes over time.
+     */
+    interface Answer
+    {
+        Object answer(Object[] args);
+    }
+
+    private Stubs()
+    {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Object> answers)
+    {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+        {
+            String name = method.getName();
+            if (name.equals("equals"))
+            {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode"))
+            {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("toString"))
+            {
+                return type.getSimpleName() + "@stub";
+            }
+
+            Object value = answers.get(name);
+            if (value instanceof Answer)
+            {
+                return ((Answer) value).answer(args);
+            }
+            if (value != null)
+            {
+                return value;
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private static Object defaultValue(Class<?> type)
+    {
+        if (!type.isPrimitive() || type == void.class)
+        {
+            return null;
+        }
+        if (type == boolean.class)
+        {
+            return Boolean.FALSE;
+        }
+        if (type == long.class)
+        {
+            return 0L;
+        }
+        if (type == double.class)
+        {
+            return 0.0;
+        }
+        if (type == float.class)
+        {
+            return 0f;
+        }
+        if (type == char.class)
+        {
+            return '\0';
+        }
+        if (type == byte.class)
+        {
+            return (byte) 0;
+        }
+        if (type == short.class)
+        {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
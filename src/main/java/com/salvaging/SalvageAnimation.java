@@ -0,0 +1,60 @@
+package com.salvaging;
+
+/**
+ * What an actor is doing on the boat, derived from its animation id.
+ * New sailing animations only need adding to the constant they belong to.
+ */
+enum SalvageAnimation
+{
+    IDLE,
+    HAULING(13576, 13577, 13583, 13584),
+    // shown as "Cleaning" on the status overlay
+    CLEANING(13599);
+
+    private static final SalvageAnimation[] VALUES = values();
+
+    // animation id -> ordinal; anything unlisted is IDLE (0)
+    private static final byte[] TABLE;
+
+    static
+    {
+        int maxId = 0;
+        for (SalvageAnimation a : VALUES)
+        {
+            for (int id : a.animationIds)
+            {
+                maxId = Math.max(maxId, id);
+            }
+        }
+
+        TABLE = new byte[maxId + 1];
+        for (SalvageAnimation a : VALUES)
+        {
+            for (int id : a.animationIds)
+            {
+                TABLE[id] = (byte) a.ordinal();
+            }
+        }
+    }
+
+    private final int[] animationIds;
+
+    SalvageAnimation(int... animationIds)
+    {
+        this.animationIds = animationIds;
+    }
+
+    static SalvageAnimation of(int animationId)
+    {
+        if (animationId < 0 || animationId >= TABLE.length)
+        {
+            return IDLE;
+        }
+        return VALUES[TABLE[animationId]];
+    }
+
+    boolean isWorking()
+    {
+        return this != IDLE;
+    }
+}
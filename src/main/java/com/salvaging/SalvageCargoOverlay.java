@@ -3,10 +3,10 @@ package com.salvaging;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.util.List;
 import javax.inject.Inject;
 
-import net.runelite.api.Client;
-import net.runelite.api.widgets.Widget;
+import net.runelite.client.ui.overlay.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LineComponent;
@@ -14,90 +14,94 @@ import net.runelite.client.ui.overlay.components.TitleComponent;
 
 class SalvageCargoOverlay extends OverlayPanel
 {
-    // Cargo group so we can read real numbers when the window is open
-    private static final int CARGO_GROUP_ID = 943;
-
-    private final Client client;
     private final SalvagingPlugin plugin;
-    private final SalvagingConfig config;
+    private final SalvageConfigCache configCache;
+    private final SalvagePerfCounters perf;
+
+    // redrawn at most once per snapshot
+    private final SalvageRenderCache renderCache = new SalvageRenderCache(this::paintPanel);
+
+    // built once; text is only rebuilt when the numbers behind it change
+    private final TitleComponent title = TitleComponent.builder()
+            .text("Cargo")
+            .color(Color.WHITE)
+            .build();
+    private final LineComponent cargoLine = LineComponent.builder()
+            .left("Cargo:")
+            .build();
+    private final LineComponent fullInLine = LineComponent.builder()
+            .left("Full in:")
+            .build();
+
+    private final SalvageText.Key cargoKey = new SalvageText.Key();
+    private String cargoText;
+    private final SalvageText.Key fullInKey = new SalvageText.Key();
 
     @Inject
-    private SalvageCargoOverlay(Client client, SalvagingPlugin plugin, SalvagingConfig config)
+    private SalvageCargoOverlay(SalvagingPlugin plugin, SalvageConfigCache configCache, SalvagePerfCounters perf)
     {
         super(plugin);
-        this.client = client;
         this.plugin = plugin;
-        this.config = config;
+        this.configCache = configCache;
+        this.perf = perf;
         setPosition(OverlayPosition.TOP_LEFT);
     }
 
     @Override
     public Dimension render(Graphics2D graphics)
     {
-        panelComponent.getChildren().clear();
+        long start = perf.start();
+        Dimension size = renderPanel(graphics);
+        perf.stop(SalvagePerfProbe.CARGO_OVERLAY, start);
+        return size;
+    }
 
-        if (!plugin.isOnBoat())
+    private Dimension renderPanel(Graphics2D graphics)
+    {
+        SalvageSettings settings = configCache.get();
+
+        // in HUD mode the HUD overlay draws this section instead
+        if (settings.isHudMode())
         {
+            renderCache.clear();
             return null;
         }
-        if (!config.showCargoOverlay())
+        return renderCache.render(graphics, plugin.getSnapshot(), settings, getPreferredSize());
+    }
+
+    private Dimension paintPanel(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        panelComponent.getChildren().clear();
+
+        if (!addSection(panelComponent.getChildren(), snapshot, settings))
         {
             return null;
         }
+        return super.render(graphics);
+    }
 
-        int used = plugin.getCargoUsed();
-        int max = plugin.getCargoMax();
-
-        // --- If the cargo window is open, try to override with the actual "X / Y" text ---
-        for (int child = 0; child < 30; child++)
+    /**
+     * Adds this overlay's lines to a panel, its own or the HUD's.
+     *
+     * @return false if there is nothing to show
+     */
+    boolean addSection(List<LayoutableRenderableEntity> children, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        if (!snapshot.isOnBoat())
         {
-            Widget w = client.getWidget(CARGO_GROUP_ID, child);
-            if (w == null || w.isHidden())
-            {
-                continue;
-            }
-
-            String text = w.getText();
-            if (text == null)
-            {
-                continue;
-            }
-
-            String stripped = text.trim();
-            int slashIdx = stripped.indexOf('/');
-            if (slashIdx <= 0 || slashIdx >= stripped.length() - 1)
-            {
-                continue;
-            }
-
-            String left = stripped.substring(0, slashIdx).trim();
-            String right = stripped.substring(slashIdx + 1).trim();
-
-            try
-            {
-                int parsedUsed = Integer.parseInt(left);
-                int parsedMax = Integer.parseInt(right);
-
-                if (parsedUsed >= 0 && parsedMax > 0 && parsedUsed <= parsedMax)
-                {
-                    used = parsedUsed;
-                    max = parsedMax;
-                }
-            }
-            catch (NumberFormatException ignored)
-            {
-                // just skip this child
-            }
+            return false;
         }
+        if (!settings.isShowCargoOverlay())
+        {
+            return false;
+        }
+
+        int used = snapshot.getCargoUsed();
+        int max = snapshot.getCargoMax();
 
-        panelComponent.getChildren().add(
-                TitleComponent.builder()
-                        .text("Cargo")
-                        .color(Color.WHITE)
-                        .build()
-        );
+        children.add(title);
 
-        boolean cargoFullFlag = plugin.isCargoReallyFull();
+        boolean cargoFullFlag = snapshot.isCargoFull();
 
         String rightText;
         Color rightColor = Color.WHITE;
@@ -111,7 +115,11 @@ class SalvageCargoOverlay extends OverlayPanel
             }
             else
             {
-                rightText = used + " / " + max;
+                if (cargoKey.changed(used, max))
+                {
+                    cargoText = SalvageText.number(used) + " / " + SalvageText.number(max);
+                }
+                rightText = cargoText;
             }
         }
         else
@@ -130,19 +138,28 @@ class SalvageCargoOverlay extends OverlayPanel
             }
         }
 
-        if (cargoFullFlag && config.highlightCargoWhenFull())
+        if (cargoFullFlag && settings.isHighlightCargoWhenFull())
         {
-            rightColor = config.cargoFullColor();
+            rightColor = settings.getCargoFullColor();
         }
 
-        panelComponent.getChildren().add(
-                LineComponent.builder()
-                        .left("Cargo:")
-                        .right(rightText)
-                        .rightColor(rightColor)
-                        .build()
-        );
+        cargoLine.setRight(rightText);
+        cargoLine.setRightColor(rightColor);
+        children.add(cargoLine);
 
-        return super.render(graphics);
+        int secondsToFull = snapshot.getCargoSecondsToFull();
+        if (secondsToFull > 0)
+        {
+            if (fullInKey.changed(secondsToFull))
+            {
+                int seconds = secondsToFull % 60;
+                fullInLine.setRight("~" + SalvageText.number(secondsToFull / 60) + (seconds < 10 ? ":0" : ":")
+                        + SalvageText.number(seconds));
+            }
+            fullInLine.setRightColor(secondsToFull <= settings.getCargoFullWarningSeconds() ? Color.ORANGE : Color.WHITE);
+            children.add(fullInLine);
+        }
+
+        return true;
     }
 }
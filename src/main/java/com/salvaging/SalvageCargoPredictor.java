@@ -0,0 +1,95 @@
+package com.salvaging;
+
+/**
+ * Estimates how long until the cargo hold is full, from how fast it has been
+ * filling lately.
+ *
+ * The hold's used count is sampled once per tick; the per-tick intake (crew hooks
+ * and the player's own hauls alike) goes into an exponentially weighted average
+ * with a time constant of {@link #HORIZON_TICKS}, so a crew that goes idle pushes
+ * the estimate out within a few minutes. Each update is O(1).
+ */
+class SalvageCargoPredictor
+{
+    static final int HORIZON_TICKS = TickClock.secondsToTicks(5 * 60);
+
+    // no estimate before this many ticks of samples
+    static final int MIN_SAMPLE_TICKS = TickClock.secondsToTicks(60);
+
+    private static final double ALPHA = 1.0 / HORIZON_TICKS;
+
+    private int lastUsed = -1;
+    private int samples = 0;
+
+    // weighted average and the weight it has built up, for bias correction while warming up
+    private double average = 0;
+    private double weight = 0;
+
+    void clear()
+    {
+        lastUsed = -1;
+        samples = 0;
+        average = 0;
+        weight = 0;
+    }
+
+    /**
+     * Feeds the current used count; call once per tick.
+     */
+    void update(int used)
+    {
+        if (lastUsed < 0)
+        {
+            lastUsed = used;
+            return;
+        }
+
+        int intake = used - lastUsed;
+        lastUsed = used;
+
+        if (intake < 0)
+        {
+            // hold was emptied or corrected by a re-read; that's not an intake rate
+            return;
+        }
+
+        average += ALPHA * (intake - average);
+        weight += ALPHA * (1 - weight);
+        samples++;
+    }
+
+    /**
+     * Items per tick going into the hold lately, or 0 while still warming up.
+     */
+    double intakePerTick()
+    {
+        if (samples < MIN_SAMPLE_TICKS || weight <= 0)
+        {
+            return 0;
+        }
+        return average / weight;
+    }
+
+    /**
+     * Ticks until the hold is full at the current intake: 0 if it already is,
+     * -1 if that can't be told (capacity unknown, or nothing is coming in).
+     */
+    long ticksToFull(int used, int max)
+    {
+        if (max <= 0)
+        {
+            return -1;
+        }
+        if (used >= max)
+        {
+            return 0;
+        }
+
+        double rate = intakePerTick();
+        if (rate <= 0)
+        {
+            return -1;
+        }
+        return (long) Math.ceil((max - used) / rate);
+    }
+}
@@ -0,0 +1,558 @@
+package com.salvaging;
+
+import java.util.Arrays;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.util.Text;
+
+/**
+ * Keeps track of how full the cargo hold is and what went into it.
+ * The hold interface is parsed once per change (open / update of the hold's
+ * own container), never per tick or per frame.
+ *
+ * What is in the hold comes from its item container: every update of it is
+ * diffed slot by slot against the previous one, and the items gained are split
+ * over the hooks (crew and the player's own hauls) landed since, then handed to
+ * the plugin through {@link #drainYield}. The game only sends the container while
+ * the hold is open, so hooks landed with it closed are {@link #getPendingHookTotal
+ * pending} until it is opened again.
+ */
+@Singleton
+class SalvageCargoTracker
+{
+    // Cargo hold widget ids
+    static final int CARGOHOLD_GROUP_ID = 943;
+    static final int CARGOHOLD_USED_CHILD = 4;
+    static final int CARGOHOLD_CAP_CHILD = 5;
+
+    // The hold's item container, one per boat the player can own
+    private static final int[] CARGOHOLD_CONTAINER_IDS = {
+            InventoryID.SAILING_BOAT_1_CARGOHOLD,
+            InventoryID.SAILING_BOAT_2_CARGOHOLD,
+            InventoryID.SAILING_BOAT_3_CARGOHOLD,
+            InventoryID.SAILING_BOAT_4_CARGOHOLD,
+            InventoryID.SAILING_BOAT_5_CARGOHOLD,
+    };
+
+    // how many children of the hold we look through for a "used / max" label
+    private static final int CARGOHOLD_SCAN_CHILDREN = 30;
+
+    private final Client client;
+    private final ClientThread clientThread;
+    private final SalvageConfigCache configCache;
+    private final SalvageEventRecorder recorder;
+
+    private boolean holdOpen = false;
+
+    @Getter
+    private int used = 0;
+
+    @Getter
+    private int capacity = 0;
+
+    @Getter
+    private boolean full = false;
+
+    private boolean changed = true;
+
+    // --------- hold contents ---------
+
+    private static final int EMPTY_SLOT = -1;
+
+    // the hold as last read: item id (or EMPTY_SLOT) and quantity per slot
+    private int[] slotItemIds = new int[0];
+    private int[] slotQuantities = new int[0];
+    private int slotCount = 0;
+    // false until the first read, which is the baseline and not a yield
+    private boolean slotsKnown = false;
+
+    private final SalvageItemCounts hold = new SalvageItemCounts();
+    private int holdTotal = 0;
+
+    // net change per item during the current read
+    private final SalvageItemCounts readDiff = new SalvageItemCounts();
+    private final SalvageItemCounts.Visitor attributeGain = this::attributeGain;
+
+    // hooks since the last read that showed new items, by source + 1 (see SalvageYieldTable)
+    private final int[] pendingHooks = new int[1 + SalvageCrewRoster.CREW_NAMES.size()];
+    private int pendingHookTotal = 0;
+    private boolean gainedThisRead;
+
+    // gains not yet drained: item id, quantity, source
+    private int[] gains = new int[3 * 16];
+    private int gainCount = 0;
+
+    /**
+     * Receives the items gained since the last drain.
+     */
+    interface YieldSink
+    {
+        void gained(int itemId, int quantity, int source);
+    }
+
+    @Inject
+    private SalvageCargoTracker(Client client, ClientThread clientThread, SalvageConfigCache configCache, SalvageEventRecorder recorder)
+    {
+        this.client = client;
+        this.clientThread = clientThread;
+        this.configCache = configCache;
+        this.recorder = recorder;
+    }
+
+    void reset()
+    {
+        holdOpen = false;
+        used = 0;
+        capacity = 0;
+        full = false;
+        changed = true;
+
+        Arrays.fill(slotItemIds, EMPTY_SLOT);
+        Arrays.fill(slotQuantities, 0);
+        slotCount = 0;
+        slotsKnown = false;
+        hold.clear();
+        holdTotal = 0;
+        Arrays.fill(pendingHooks, 0);
+        pendingHookTotal = 0;
+        gainCount = 0;
+    }
+
+    /**
+     * Returns true once after every change to the cargo numbers.
+     */
+    boolean pollChanged()
+    {
+        boolean c = changed;
+        changed = false;
+        return c;
+    }
+
+    /**
+     * Hooks whose salvage hasn't shown up in the hold yet, e.g. because it wasn't opened since.
+     */
+    int getPendingHookTotal()
+    {
+        return pendingHookTotal;
+    }
+
+    int getMax()
+    {
+        int override = configCache.get().getCargoCapacityOverride();
+        if (override > 0)
+        {
+            return override;
+        }
+        return capacity;
+    }
+
+    /**
+     * Safe cargo-full check for overlays: uses numbers if we know them,
+     * otherwise falls back to the boolean flag.
+     */
+    boolean isReallyFull()
+    {
+        int max = getMax();
+        if (max > 0)
+        {
+            return used >= max;
+        }
+        return full;
+    }
+
+    // --------- updates from the plugin ---------
+
+    /**
+     * Puts back the numbers recovered from the session journal. The hold is
+     * re-read as usual the next time it is opened.
+     */
+    void restore(int used, int capacity, boolean full)
+    {
+        this.used = used;
+        this.capacity = capacity;
+        this.full = full;
+        changed = true;
+    }
+
+    /**
+     * A crewmate hooked some salvage; count it until the hold tells us otherwise.
+     */
+    void addHook(int crewId)
+    {
+        addPendingHook(crewId);
+
+        int max = getMax();
+        if (max > 0)
+        {
+            used = Math.min(used + 1, max);
+        }
+        else
+        {
+            used++;
+        }
+
+        recomputeFull();
+        changed = true;
+    }
+
+    /**
+     * The player started hauling; what it brings up is theirs.
+     */
+    void addPlayerHaul()
+    {
+        addPendingHook(SalvageYieldTable.PLAYER);
+        changed = true;
+    }
+
+    /**
+     * Hands over the items gained since the last call.
+     */
+    void drainYield(YieldSink sink)
+    {
+        for (int i = 0; i < gainCount; i += 3)
+        {
+            sink.gained(gains[i], gains[i + 1], gains[i + 2]);
+        }
+        gainCount = 0;
+    }
+
+    /**
+     * The capacity override changed; max and full are derived from it.
+     */
+    void markConfigChanged()
+    {
+        recomputeFull();
+        changed = true;
+    }
+
+    void markFull()
+    {
+        full = true;
+        int max = getMax();
+        if (max > 0)
+        {
+            used = max;
+        }
+        changed = true;
+    }
+
+    // --------- events ---------
+
+    void onWidgetLoaded(WidgetLoaded event)
+    {
+        if (event.getGroupId() != CARGOHOLD_GROUP_ID)
+        {
+            return;
+        }
+
+        holdOpen = true;
+        // text and items are filled in by scripts after the load event, read them once those ran
+        clientThread.invokeLater(this::parseHold);
+    }
+
+    void onWidgetClosed(WidgetClosed event)
+    {
+        if (event.getGroupId() == CARGOHOLD_GROUP_ID)
+        {
+            holdOpen = false;
+        }
+    }
+
+    void onItemContainerChanged(ItemContainerChanged event)
+    {
+        // inventory, equipment, bank... never touch the hold
+        if (!isCargoHold(event.getContainerId()))
+        {
+            return;
+        }
+
+        ItemContainer container = event.getItemContainer();
+        if (container != null)
+        {
+            Item[] items = container.getItems();
+            recorder.recordCargoItems(event.getContainerId(), items);
+            readItems(items);
+            // the container is the whole hold, empty included
+            used = holdTotal;
+            if (capacity == 0)
+            {
+                int override = configCache.get().getCargoCapacityOverride();
+                if (override > 0)
+                {
+                    capacity = override;
+                }
+            }
+            recomputeFull();
+            changed = true;
+        }
+
+        if (holdOpen)
+        {
+            // the labels are updated by scripts after the container, read them once those ran
+            clientThread.invokeLater(this::parseHold);
+        }
+    }
+
+    static boolean isCargoHold(int containerId)
+    {
+        for (int id : CARGOHOLD_CONTAINER_IDS)
+        {
+            if (id == containerId)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --------- parsing ---------
+
+    private void recomputeFull()
+    {
+        int max = getMax();
+        if (max > 0)
+        {
+            full = used >= max;
+        }
+        // if we don't know max, full can only be forced true by chat
+    }
+
+    void parseHold()
+    {
+        recorder.recordCargoHold();
+
+        Widget universe = client.getWidget(CARGOHOLD_GROUP_ID, 0);
+        if (universe == null || universe.isHidden())
+        {
+            holdOpen = false;
+            return;
+        }
+
+        Widget usedWidget = client.getWidget(CARGOHOLD_GROUP_ID, CARGOHOLD_USED_CHILD);
+        Widget capWidget = client.getWidget(CARGOHOLD_GROUP_ID, CARGOHOLD_CAP_CHILD);
+
+        if (usedWidget != null && capWidget != null)
+        {
+            try
+            {
+                int parsedUsed = Integer.parseInt(Text.removeTags(usedWidget.getText()).trim());
+                int parsedCap = Integer.parseInt(Text.removeTags(capWidget.getText()).trim());
+
+                if (parsedCap > 0)
+                {
+                    used = parsedUsed;
+                    capacity = parsedCap;
+                }
+            }
+            catch (NumberFormatException ignored)
+            {
+                // keep what the items said
+            }
+        }
+
+        // A combined "X / Y" label anywhere in the hold wins over the values above
+        parseUsedOverMaxLabel();
+
+        recomputeFull();
+        changed = true;
+    }
+
+    // --------- hold contents ---------
+
+    /**
+     * Updates the hold from its item container, touching only the slots that changed,
+     * and attributes what was gained.
+     */
+    private void readItems(Item[] items)
+    {
+        int n = items.length;
+        if (n > slotItemIds.length)
+        {
+            int old = slotItemIds.length;
+            slotItemIds = Arrays.copyOf(slotItemIds, n);
+            slotQuantities = Arrays.copyOf(slotQuantities, n);
+            Arrays.fill(slotItemIds, old, n, EMPTY_SLOT);
+        }
+
+        readDiff.clear();
+        for (int i = 0; i < n; i++)
+        {
+            int itemId = items[i].getId();
+            int quantity = items[i].getQuantity();
+            if (itemId < 0 || quantity <= 0)
+            {
+                itemId = EMPTY_SLOT;
+                quantity = 0;
+            }
+
+            if (itemId != slotItemIds[i] || quantity != slotQuantities[i])
+            {
+                setSlot(i, itemId, quantity);
+            }
+        }
+        for (int i = n; i < slotCount; i++)
+        {
+            setSlot(i, EMPTY_SLOT, 0);
+        }
+        slotCount = n;
+
+        if (!slotsKnown)
+        {
+            // hooks landed so far are already in the baseline, no later read can match them
+            slotsKnown = true;
+            Arrays.fill(pendingHooks, 0);
+            pendingHookTotal = 0;
+            return;
+        }
+
+        gainedThisRead = false;
+        readDiff.forEach(attributeGain);
+        if (gainedThisRead)
+        {
+            Arrays.fill(pendingHooks, 0);
+            pendingHookTotal = 0;
+        }
+    }
+
+    private void setSlot(int slot, int itemId, int quantity)
+    {
+        int oldItemId = slotItemIds[slot];
+        int oldQuantity = slotQuantities[slot];
+        if (oldItemId != EMPTY_SLOT)
+        {
+            hold.add(oldItemId, -oldQuantity);
+            readDiff.add(oldItemId, -oldQuantity);
+            holdTotal -= oldQuantity;
+        }
+        if (itemId != EMPTY_SLOT)
+        {
+            hold.add(itemId, quantity);
+            readDiff.add(itemId, quantity);
+            holdTotal += quantity;
+        }
+
+        slotItemIds[slot] = itemId;
+        slotQuantities[slot] = quantity;
+    }
+
+    private void addPendingHook(int source)
+    {
+        if (SalvageYieldTable.isSource(source))
+        {
+            pendingHooks[source + 1]++;
+            pendingHookTotal++;
+        }
+    }
+
+    /**
+     * Splits an item gained in one read over the pending hooks, in proportion to
+     * each source's hooks; the remainder goes to the source with the most. With no
+     * hook pending it is put down to the player.
+     */
+    private void attributeGain(int itemId, int quantity)
+    {
+        if (quantity <= 0)
+        {
+            // taken out, or moved between slots
+            return;
+        }
+
+        gainedThisRead = true;
+        if (pendingHookTotal == 0)
+        {
+            addGain(itemId, quantity, SalvageYieldTable.PLAYER);
+            return;
+        }
+
+        int remaining = quantity;
+        int top = 0;
+        for (int s = 0; s < pendingHooks.length; s++)
+        {
+            if (pendingHooks[s] == 0)
+            {
+                continue;
+            }
+            if (pendingHooks[s] > pendingHooks[top])
+            {
+                top = s;
+            }
+
+            int share = (int) ((long) quantity * pendingHooks[s] / pendingHookTotal);
+            if (share > 0)
+            {
+                addGain(itemId, share, s - 1);
+                remaining -= share;
+            }
+        }
+
+        if (remaining > 0)
+        {
+            addGain(itemId, remaining, top - 1);
+        }
+    }
+
+    private void addGain(int itemId, int quantity, int source)
+    {
+        if (gainCount + 3 > gains.length)
+        {
+            gains = Arrays.copyOf(gains, gains.length * 2);
+        }
+        gains[gainCount++] = itemId;
+        gains[gainCount++] = quantity;
+        gains[gainCount++] = source;
+    }
+
+    private void parseUsedOverMaxLabel()
+    {
+        for (int child = 0; child < CARGOHOLD_SCAN_CHILDREN; child++)
+        {
+            Widget w = client.getWidget(CARGOHOLD_GROUP_ID, child);
+            if (w == null || w.isHidden())
+            {
+                continue;
+            }
+
+            String text = w.getText();
+            if (text == null)
+            {
+                continue;
+            }
+
+            String stripped = text.trim();
+            int slashIdx = stripped.indexOf('/');
+            if (slashIdx <= 0 || slashIdx >= stripped.length() - 1)
+            {
+                continue;
+            }
+
+            String left = stripped.substring(0, slashIdx).trim();
+            String right = stripped.substring(slashIdx + 1).trim();
+
+            try
+            {
+                int parsedUsed = Integer.parseInt(left);
+                int parsedMax = Integer.parseInt(right);
+
+                if (parsedUsed >= 0 && parsedMax > 0 && parsedUsed <= parsedMax)
+                {
+                    used = parsedUsed;
+                    capacity = parsedMax;
+                }
+            }
+            catch (NumberFormatException ignored)
+            {
+                // just skip this child
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.salvaging;
+
+/**
+ * Game messages the plugin reacts to, as classified by {@link SalvageChatMatcher}.
+ */
+enum SalvageChatEvent
+{
+    NONE,
+    // "You gain some experience by watching your crew work."
+    CREW_XP,
+    // crewmate on the hook reports the hold is full
+    CARGO_FULL_CREW,
+    // any other message about the cargo hold being full
+    CARGO_FULL,
+    CRYSTAL_HARVESTED
+}
@@ -0,0 +1,302 @@
+package com.salvaging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Classifies chat messages in a single pass over the raw text.
+ * Tags are skipped while walking, so no stripped / lower-cased copy is ever built.
+ *
+ * Two kinds of rules can be registered:
+ * <ul>
+ *   <li>exact phrases (case sensitive, whole message), matched with a trie</li>
+ *   <li>keyword rules: every keyword must appear somewhere in the message
+ *   (case insensitive), matched with an Aho-Corasick automaton</li>
+ * </ul>
+ * Exact phrases win over keyword rules; keyword rules are tried in the order added.
+ */
+class SalvageChatMatcher
+{
+    private static final class Node
+    {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+
+        // exact trie: event of the phrase ending here
+        private SalvageChatEvent event;
+
+        // keyword automaton
+        private Node fail;
+        private long output;
+
+        Node child(char c)
+        {
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (keys[i] == c)
+                {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node getOrAddChild(char c)
+        {
+            Node n = child(c);
+            if (n == null)
+            {
+                n = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = c;
+                children[children.length - 1] = n;
+            }
+            return n;
+        }
+    }
+
+    private final Node exactRoot;
+    private final Node keywordRoot;
+
+    // one entry per keyword rule: bitmask of required keywords -> event
+    private final long[] ruleMasks;
+    private final SalvageChatEvent[] ruleEvents;
+
+    // no rule can match a message with fewer raw characters than this
+    private final int minLength;
+
+    private SalvageChatMatcher(Node exactRoot, Node keywordRoot, long[] ruleMasks, SalvageChatEvent[] ruleEvents, int minLength)
+    {
+        this.exactRoot = exactRoot;
+        this.keywordRoot = keywordRoot;
+        this.ruleMasks = ruleMasks;
+        this.ruleEvents = ruleEvents;
+        this.minLength = minLength;
+    }
+
+    static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Same as {@code Text.removeTags(text).startsWith(prefix)}, without building the stripped string.
+     */
+    static boolean startsWithIgnoringTags(String text, String prefix)
+    {
+        int p = 0;
+        boolean inTag = false;
+
+        for (int i = 0, len = text.length(); i < len && p < prefix.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (inTag)
+            {
+                inTag = c != '>';
+                continue;
+            }
+            if (c == '<')
+            {
+                inTag = true;
+                continue;
+            }
+
+            if (c != prefix.charAt(p++))
+            {
+                return false;
+            }
+        }
+
+        return p == prefix.length();
+    }
+
+    SalvageChatEvent match(String message)
+    {
+        if (message == null || message.length() < minLength)
+        {
+            return SalvageChatEvent.NONE;
+        }
+
+        boolean keywords = ruleMasks.length > 0;
+        Node exact = exactRoot;
+        Node state = keywordRoot;
+        long seen = 0;
+        boolean inTag = false;
+
+        for (int i = 0, len = message.length(); i < len; i++)
+        {
+            char c = message.charAt(i);
+            if (inTag)
+            {
+                inTag = c != '>';
+                continue;
+            }
+            if (c == '<')
+            {
+                inTag = true;
+                continue;
+            }
+
+            if (exact != null)
+            {
+                exact = exact.child(c);
+            }
+
+            if (keywords)
+            {
+                char lc = Character.toLowerCase(c);
+                Node next = state.child(lc);
+                while (next == null && state != keywordRoot)
+                {
+                    state = state.fail;
+                    next = state.child(lc);
+                }
+                state = next != null ? next : keywordRoot;
+                seen |= state.output;
+            }
+            else if (exact == null)
+            {
+                // no phrase can match any more and there are no keyword rules
+                return SalvageChatEvent.NONE;
+            }
+        }
+
+        if (exact != null && exact.event != null)
+        {
+            return exact.event;
+        }
+
+        for (int r = 0; r < ruleMasks.length; r++)
+        {
+            if ((seen & ruleMasks[r]) == ruleMasks[r])
+            {
+                return ruleEvents[r];
+            }
+        }
+
+        return SalvageChatEvent.NONE;
+    }
+
+    static class Builder
+    {
+        private final Node exactRoot = new Node();
+        private final Node keywordRoot = new Node();
+        private final List<String> keywords = new ArrayList<>();
+        private final List<Long> ruleMasks = new ArrayList<>();
+        private final List<SalvageChatEvent> ruleEvents = new ArrayList<>();
+        private int minLength = Integer.MAX_VALUE;
+
+        /**
+         * Matches a message whose text, with tags removed, is exactly {@code phrase}.
+         */
+        Builder exact(String phrase, SalvageChatEvent event)
+        {
+            Node n = exactRoot;
+            for (int i = 0; i < phrase.length(); i++)
+            {
+                n = n.getOrAddChild(phrase.charAt(i));
+            }
+            n.event = event;
+            minLength = Math.min(minLength, phrase.length());
+            return this;
+        }
+
+        /**
+         * Matches a message containing every one of the keywords, ignoring case.
+         */
+        Builder containsAll(SalvageChatEvent event, String... words)
+        {
+            long mask = 0;
+            int longest = 0;
+            for (String word : words)
+            {
+                mask |= 1L << keywordId(word.toLowerCase());
+                longest = Math.max(longest, word.length());
+            }
+            ruleMasks.add(mask);
+            ruleEvents.add(event);
+            minLength = Math.min(minLength, longest);
+            return this;
+        }
+
+        private int keywordId(String word)
+        {
+            int id = keywords.indexOf(word);
+            if (id >= 0)
+            {
+                return id;
+            }
+            if (keywords.size() == Long.SIZE)
+            {
+                throw new IllegalStateException("too many chat keywords");
+            }
+
+            id = keywords.size();
+            keywords.add(word);
+
+            Node n = keywordRoot;
+            for (int i = 0; i < word.length(); i++)
+            {
+                n = n.getOrAddChild(word.charAt(i));
+            }
+            n.output |= 1L << id;
+            return id;
+        }
+
+        SalvageChatMatcher build()
+        {
+            linkFailures();
+
+            long[] masks = new long[ruleMasks.size()];
+            for (int i = 0; i < masks.length; i++)
+            {
+                masks[i] = ruleMasks.get(i);
+            }
+
+            return new SalvageChatMatcher(
+                    exactRoot,
+                    keywordRoot,
+                    masks,
+                    ruleEvents.toArray(new SalvageChatEvent[0]),
+                    minLength == Integer.MAX_VALUE ? 0 : minLength
+            );
+        }
+
+        // standard Aho-Corasick failure links, breadth first
+        private void linkFailures()
+        {
+            Queue<Node> queue = new ArrayDeque<>();
+            keywordRoot.fail = keywordRoot;
+            for (Node child : keywordRoot.children)
+            {
+                child.fail = keywordRoot;
+                queue.add(child);
+            }
+
+            while (!queue.isEmpty())
+            {
+                Node node = queue.poll();
+                for (int i = 0; i < node.keys.length; i++)
+                {
+                    char c = node.keys[i];
+                    Node child = node.children[i];
+
+                    Node f = node.fail;
+                    Node target = f.child(c);
+                    while (target == null && f != keywordRoot)
+                    {
+                        f = f.fail;
+                        target = f.child(c);
+                    }
+                    child.fail = target != null && target != child ? target : keywordRoot;
+                    child.output |= child.fail.output;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+}
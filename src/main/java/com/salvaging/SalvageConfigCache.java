@@ -0,0 +1,37 @@
+package com.salvaging;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Hands out the current {@link SalvageSettings}. The plugin rebuilds them on every
+ * config change of its group; everything else only reads this field, from any
+ * thread.
+ */
+@Singleton
+class SalvageConfigCache
+{
+    private final SalvagingConfig config;
+
+    private volatile SalvageSettings settings;
+
+    @Inject
+    private SalvageConfigCache(SalvagingConfig config)
+    {
+        this.config = config;
+        this.settings = new SalvageSettings(config);
+    }
+
+    SalvageSettings get()
+    {
+        return settings;
+    }
+
+    /**
+     * Re-reads the config. Call after it changed.
+     */
+    void refresh()
+    {
+        settings = new SalvageSettings(config);
+    }
+}
@@ -0,0 +1,77 @@
+package com.salvaging;
+
+/**
+ * Crew ids ordered by hook count, most first, kept in order as hooks come in.
+ * A hook only ever raises one count by one, so it moves that crewmate up past
+ * the few with fewer hooks instead of sorting everyone again. Ties keep the one
+ * who got there first on top.
+ */
+class SalvageCrewLeaderboard
+{
+    private static final int CREW = SalvageCrewRoster.CREW_NAMES.size();
+
+    // crew ids by rank
+    private final int[] order = new int[CREW];
+    // crew id -> rank, -1 until the first hook
+    private final int[] rank = new int[CREW];
+    private final int[] counts = new int[CREW];
+    private int size = 0;
+
+    SalvageCrewLeaderboard()
+    {
+        clear();
+    }
+
+    void clear()
+    {
+        for (int i = 0; i < CREW; i++)
+        {
+            rank[i] = -1;
+            counts[i] = 0;
+        }
+        size = 0;
+    }
+
+    /**
+     * Counts one hook for the crewmate and returns their new count.
+     */
+    int add(int crewId)
+    {
+        int r = rank[crewId];
+        if (r < 0)
+        {
+            r = size++;
+            order[r] = crewId;
+        }
+
+        int count = ++counts[crewId];
+        while (r > 0 && counts[order[r - 1]] < count)
+        {
+            int passed = order[r - 1];
+            order[r] = passed;
+            rank[passed] = r;
+            r--;
+        }
+        order[r] = crewId;
+        rank[crewId] = r;
+        return count;
+    }
+
+    /**
+     * Crewmates with at least one hook.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    int crewIdAt(int rank)
+    {
+        return order[rank];
+    }
+
+    int count(int crewId)
+    {
+        return counts[crewId];
+    }
+}
@@ -3,11 +3,11 @@ package com.salvaging;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
-import java.util.Comparator;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 import javax.inject.Inject;
 
+import net.runelite.client.ui.overlay.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LineComponent;
@@ -16,111 +16,186 @@ import net.runelite.client.ui.overlay.components.TitleComponent;
 class SalvageCrewOverlay extends OverlayPanel
 {
     private final SalvagingPlugin plugin;
-    private final SalvagingConfig config;
+    private final SalvageConfigCache configCache;
+    private final SalvagePerfCounters perf;
+
+    // redrawn at most once per snapshot
+    private final SalvageRenderCache renderCache = new SalvageRenderCache(this::paintPanel);
+
+    // built once; text is only rebuilt when the numbers behind it change
+    private final TitleComponent title = TitleComponent.builder()
+            .text("Salvage crew")
+            .color(Color.WHITE)
+            .build();
+    private final LineComponent activityLine = LineComponent.builder()
+            .left("Crew salvaging:")
+            .build();
+    private final LineComponent noCrewLine = LineComponent.builder()
+            .left("No crew detected yet.")
+            .leftColor(Color.GRAY)
+            .build();
+    private final LineComponent noHooksLine = LineComponent.builder()
+            .left("No hooks yet.")
+            .build();
+    private final LineComponent legendLine = LineComponent.builder()
+            .left("Hooks")
+            .leftColor(Color.GRAY)
+            .rightColor(Color.GRAY)
+            .build();
+    private final List<RowLine> rowLines = new ArrayList<>();
+
+    private final SalvageText.Key activityKey = new SalvageText.Key();
+    private final SalvageText.Key legendKey = new SalvageText.Key();
 
     @Inject
-    private SalvageCrewOverlay(SalvagingPlugin plugin, SalvagingConfig config)
+    private SalvageCrewOverlay(SalvagingPlugin plugin, SalvageConfigCache configCache, SalvagePerfCounters perf)
     {
         super(plugin);
         this.plugin = plugin;
-        this.config = config;
+        this.configCache = configCache;
+        this.perf = perf;
         setPosition(OverlayPosition.TOP_LEFT);
     }
 
     @Override
     public Dimension render(Graphics2D graphics)
     {
-        panelComponent.getChildren().clear();
+        long start = perf.start();
+        Dimension size = renderPanel(graphics);
+        perf.stop(SalvagePerfProbe.CREW_OVERLAY, start);
+        return size;
+    }
 
-        // Only show when we're on a boat and user wants the panel
-        if (!plugin.isOnBoat())
+    private Dimension renderPanel(Graphics2D graphics)
+    {
+        SalvageSettings settings = configCache.get();
+
+        // in HUD mode the HUD overlay draws this section instead
+        if (settings.isHudMode())
         {
+            renderCache.clear();
             return null;
         }
-        if (!config.showCrewPanel())
+        return renderCache.render(graphics, plugin.getSnapshot(), settings, getPreferredSize());
+    }
+
+    private Dimension paintPanel(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        panelComponent.getChildren().clear();
+
+        if (!addSection(panelComponent.getChildren(), snapshot, settings))
         {
             return null;
         }
+        return super.render(graphics);
+    }
+
+    /**
+     * Adds this overlay's lines to a panel, its own or the HUD's.
+     *
+     * @return false if there is nothing to show
+     */
+    boolean addSection(List<LayoutableRenderableEntity> children, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        // Only show when we're on a boat and user wants the panel
+        if (!snapshot.isOnBoat())
+        {
+            return false;
+        }
+        if (!settings.isShowCrewPanel())
+        {
+            return false;
+        }
 
         // --- TITLE ---
-        panelComponent.getChildren().add(
-                TitleComponent.builder()
-                        .text("Salvage crew")
-                        .color(Color.WHITE)
-                        .build()
-        );
+        children.add(title);
 
         // Hook stats (historical data)
-        Map<String, Integer> crewHooks = plugin.getCrewCatchCounts();
-        boolean haveHookStats = crewHooks != null && !crewHooks.isEmpty();
+        List<SalvageSnapshot.CrewRow> rows = snapshot.getCrewRows();
+        boolean haveHookStats = !rows.isEmpty();
 
         // Live tracking (current NPCs)
-        int trackedCrew = plugin.getCrewmates().size();
-        long activeCrew = plugin.getCrewSalvaging().values().stream()
-                .filter(Boolean::booleanValue)
-                .count();
+        int trackedCrew = snapshot.getTrackedCrew();
+        int activeCrew = snapshot.getActiveCrew();
 
         // --- LIVE ACTIVITY: only show if we actually have tracked crew ---
         if (trackedCrew > 0)
         {
             Color crewColor = activeCrew > 0 ? Color.GREEN : Color.RED;
 
-            panelComponent.getChildren().add(
-                    LineComponent.builder()
-                            .left("Crew salvaging:")
-                            .leftColor(crewColor)
-                            .right(activeCrew + "/" + trackedCrew)
-                            .rightColor(crewColor)
-                            .build()
-            );
+            if (activityKey.changed(activeCrew, trackedCrew))
+            {
+                activityLine.setRight(SalvageText.number(activeCrew) + "/" + SalvageText.number(trackedCrew));
+            }
+            activityLine.setLeftColor(crewColor);
+            activityLine.setRightColor(crewColor);
+            children.add(activityLine);
         }
         else if (!haveHookStats)
         {
             // Only say "no crew" if we ALSO have no hook history
-            panelComponent.getChildren().add(
-                    LineComponent.builder()
-                            .left("No crew detected yet.")
-                            .leftColor(Color.GRAY)
-                            .build()
-            );
+            children.add(noCrewLine);
         }
 
         // --- HOOK STATS: how many hooks each crew has gotten so far ---
         if (!haveHookStats)
         {
             // No hooks at all yet
-            panelComponent.getChildren().add(
-                    LineComponent.builder()
-                            .left("No hooks yet.")
-                            .build()
-            );
-            return super.render(graphics);
+            children.add(noHooksLine);
+            return true;
         }
 
-        var sorted = crewHooks.entrySet().stream()
-                .sorted(Comparator.comparingInt(Map.Entry<String, Integer>::getValue).reversed())
-                .collect(Collectors.toList());
+        // rates are per hour: whole session | recent window
+        if (legendKey.changed(snapshot.getRateWindow().ordinal()))
+        {
+            legendLine.setRight("/hr: all | " + snapshot.getRateWindow());
+        }
+        children.add(legendLine);
 
-        for (Map.Entry<String, Integer> e : sorted)
+        // rows arrive already sorted by hook count
+        for (int i = 0; i < rows.size(); i++)
         {
-            String name = e.getKey();
-            int count = e.getValue();
-            double rate = plugin.getCrewRatePerHour(name);
+            if (i == rowLines.size())
+            {
+                rowLines.add(new RowLine());
+            }
+            children.add(rowLines.get(i).update(rows.get(i)));
+        }
+
+        return true;
+    }
+
+    /**
+     * One crewmate's line, rebuilt only when the name or numbers shown change.
+     */
+    private static final class RowLine
+    {
+        private final LineComponent line = LineComponent.builder().build();
+        private final SalvageText.Key key = new SalvageText.Key();
+        private String name;
 
-            String right = Integer.toString(count);
-            if (rate > 0)
+        LineComponent update(SalvageSnapshot.CrewRow row)
+        {
+            if (!row.getName().equals(name))
             {
-                right += String.format(" (%.1f/hr)", rate);
+                name = row.getName();
+                line.setLeft(name + ":");
             }
 
-            panelComponent.getChildren().add(
-                    LineComponent.builder()
-                            .left(name + ":")
-                            .right(right)
-                            .build()
-            );
-        }
+            int count = row.getCount();
+            double rate = row.getRatePerHour();
+            double recentRate = row.getRecentRatePerHour();
 
-        return super.render(graphics);
+            if (key.changed(count, SalvageText.tenths(rate), SalvageText.tenths(recentRate)))
+            {
+                String right = SalvageText.number(count);
+                if (rate > 0)
+                {
+                    right += " (" + SalvageText.oneDecimal(rate) + " | " + SalvageText.oneDecimal(recentRate) + ")";
+                }
+                line.setRight(right);
+            }
+            return line;
+        }
     }
 }
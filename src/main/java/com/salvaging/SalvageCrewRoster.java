@@ -0,0 +1,80 @@
+package com.salvaging;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.List;
+import net.runelite.api.NPC;
+import net.runelite.client.util.Text;
+
+/**
+ * Knows which NPCs are salvaging crew.
+ * Crew are recognised by name the first time an NPC id is seen; the answer is
+ * then cached in a primitive table keyed by NPC id, so later spawns of the
+ * same id never touch strings.
+ */
+class SalvageCrewRoster
+{
+    // All possible crew names we care about. The position in this list is the
+    // crewmate's stable id, so only ever append to it.
+    static final List<String> CREW_NAMES = ImmutableList.of(
+            "Jobless Jim",
+            "Ex-Captain Siad",
+            "Adventurer Ada",
+            "Cabin Boy Jenkins",
+            "Oarswoman Olga",
+            "Jittery Jim",
+            "Bosun Zarah",
+            "Jolly Jim",
+            "Spotter Virginia",
+            "Sailor Jakob"
+    );
+
+    private static final short UNKNOWN = 0;
+    private static final short NOT_CREW = -1;
+
+    // NPC id -> UNKNOWN, NOT_CREW or crew id + 1
+    private short[] byNpcId = new short[4096];
+
+    static String nameOf(int crewId)
+    {
+        return CREW_NAMES.get(crewId);
+    }
+
+    /**
+     * Returns the crew id of the given NPC, or -1 if it isn't a crewmate.
+     */
+    int resolve(NPC npc)
+    {
+        int npcId = npc.getId();
+        if (npcId < 0)
+        {
+            return -1;
+        }
+
+        if (npcId < byNpcId.length)
+        {
+            short known = byNpcId[npcId];
+            if (known != UNKNOWN)
+            {
+                return known == NOT_CREW ? -1 : known - 1;
+            }
+        }
+
+        String raw = npc.getName();
+        if (raw == null)
+        {
+            // name not loaded yet, don't cache a guess
+            return -1;
+        }
+
+        int crewId = CREW_NAMES.indexOf(Text.removeTags(raw).trim());
+
+        if (npcId >= byNpcId.length)
+        {
+            byNpcId = Arrays.copyOf(byNpcId, Math.max(npcId + 1, byNpcId.length * 2));
+        }
+        byNpcId[npcId] = crewId >= 0 ? (short) (crewId + 1) : NOT_CREW;
+
+        return crewId;
+    }
+}
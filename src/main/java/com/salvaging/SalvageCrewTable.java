@@ -0,0 +1,151 @@
+package com.salvaging;
+
+import lombok.Getter;
+
+/**
+ * Fixed-size table of the crewmates currently on our boat.
+ * Each crewmate gets a small slot id; per-slot state lives in parallel
+ * primitive arrays and occupancy / salvaging / idle flags in bitmasks, so the
+ * tick loop and animation handler never box or allocate.
+ * Crewmates are keyed by NPC index + world view id, no Actor references are kept.
+ */
+class SalvageCrewTable
+{
+    // more than any boat can carry; must stay <= 32 for the int masks
+    static final int CAPACITY = 16;
+
+    // not salvaging for this long makes a crewmate idle
+    static final int IDLE_TICKS = 10;
+
+    private final int[] npcIndex = new int[CAPACITY];
+    private final int[] worldViewId = new int[CAPACITY];
+    private final int[] crewIds = new int[CAPACITY];
+
+    // bit n set = slot n holds a crewmate
+    @Getter
+    private int occupiedMask = 0;
+
+    // bit n set = crewmate in slot n is doing a salvaging animation
+    private int salvagingMask = 0;
+
+    // bit n set = crewmate in slot n hasn't been salvaging for IDLE_TICKS;
+    // set by the plugin's idle timer, see markIdle
+    private int idleMask = 0;
+
+    void clear()
+    {
+        occupiedMask = 0;
+        salvagingMask = 0;
+        idleMask = 0;
+    }
+
+    /**
+     * Returns the slot of the given NPC, or -1 if it isn't one of our crew.
+     */
+    int find(int index, int worldView)
+    {
+        for (int mask = occupiedMask; mask != 0; mask &= mask - 1)
+        {
+            int slot = Integer.numberOfTrailingZeros(mask);
+            if (npcIndex[slot] == index && worldViewId[slot] == worldView)
+            {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a crewmate, returning its slot, or -1 if it is already tracked or the table is full.
+     */
+    int add(int index, int worldView, int crewId)
+    {
+        if (find(index, worldView) >= 0)
+        {
+            return -1;
+        }
+
+        int free = ~occupiedMask & ((1 << CAPACITY) - 1);
+        if (free == 0)
+        {
+            return -1;
+        }
+
+        int slot = Integer.numberOfTrailingZeros(free);
+        npcIndex[slot] = index;
+        worldViewId[slot] = worldView;
+        crewIds[slot] = crewId;
+
+        occupiedMask |= 1 << slot;
+        salvagingMask &= ~(1 << slot);
+        idleMask &= ~(1 << slot);
+        return slot;
+    }
+
+    void remove(int slot)
+    {
+        occupiedMask &= ~(1 << slot);
+        salvagingMask &= ~(1 << slot);
+        idleMask &= ~(1 << slot);
+    }
+
+    void setSalvaging(int slot, boolean working)
+    {
+        if (working)
+        {
+            salvagingMask |= 1 << slot;
+        }
+        else
+        {
+            salvagingMask &= ~(1 << slot);
+        }
+        idleMask &= ~(1 << slot);
+    }
+
+    /**
+     * Marks the crewmate idle; the plugin calls this {@link #IDLE_TICKS} after they
+     * last stopped salvaging or came aboard, unless they started again since.
+     */
+    void markIdle(int slot)
+    {
+        if ((occupiedMask & ~salvagingMask & (1 << slot)) != 0)
+        {
+            idleMask |= 1 << slot;
+        }
+    }
+
+    // --------- read-only view ---------
+
+    int size()
+    {
+        return Integer.bitCount(occupiedMask);
+    }
+
+    int salvagingCount()
+    {
+        return Integer.bitCount(salvagingMask & occupiedMask);
+    }
+
+    boolean isSalvaging(int slot)
+    {
+        return (salvagingMask & (1 << slot)) != 0;
+    }
+
+    boolean isIdle(int slot)
+    {
+        return (idleMask & (1 << slot)) != 0;
+    }
+
+    int idleCount()
+    {
+        return Integer.bitCount(idleMask & occupiedMask);
+    }
+
+    /**
+     * Crew id (see {@link SalvageCrewRoster}) of the crewmate in the slot.
+     */
+    int getCrewId(int slot)
+    {
+        return crewIds[slot];
+    }
+}
@@ -0,0 +1,583 @@
+package com.salvaging;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Actor;
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.Item;
+import net.runelite.api.NPC;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.OverheadTextChanged;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.RuneLite;
+
+/**
+ * Records the events the plugin reacts to into a compact binary trace, so a
+ * session can be replayed headless (see the replay driver in the jmh sources).
+ *
+ * A recording always starts at a reset point (plugin start, logout or hop) and
+ * begins with the session journal as it is at that point, so replaying it into a
+ * fresh plugin reproduces the live state exactly. When it stops, the plugin's
+ * final snapshot is appended so replays can be verified.
+ *
+ * Format: int MAGIC, int VERSION, int cargo capacity override, long current tick,
+ * int journal record count and that many (long tick, byte type, byte crew id,
+ * int value) journal records, then records of one type byte followed by that
+ * type's fields. Actors are written as a kind byte, the world view id and, for
+ * NPCs, the NPC index and id; game objects as the world view id, object id,
+ * plane and local x and y.
+ */
+@Slf4j
+@Singleton
+class SalvageEventRecorder
+{
+    static final int MAGIC = 0x534c5654; // "SLVT"
+    static final int VERSION = 5;
+
+    // record types
+    static final byte GAME_TICK = 1;           // int local player world view
+    static final byte CHAT = 2;                // utf type, utf message
+    static final byte ANIMATION = 3;           // actor, int animation, nullable actor location
+    static final byte OVERHEAD_TEXT = 4;       // actor, nullable utf text, nullable actor location
+    static final byte NPC_SPAWNED = 5;         // int world view, int index, int id, nullable utf name
+    static final byte NPC_DESPAWNED = 6;       // actor
+    static final byte SAILING_XP = 7;          // (no fields)
+    static final byte WIDGET_LOADED = 8;       // int group
+    static final byte WIDGET_CLOSED = 9;       // int group
+    static final byte CARGO_HOLD = 10;         // hold children, see recordCargoHold
+    static final byte GAME_STATE = 11;         // utf state
+    static final byte EXPECTED = 12;           // final snapshot, see stop
+    static final byte CARGO_ITEMS = 13;        // int container id, int slots, (int item id, int quantity) per slot
+    static final byte OBJECT_SPAWNED = 14;     // object, nullable utf name, boolean multiloc
+    static final byte OBJECT_DESPAWNED = 15;   // object
+
+    // actor kinds
+    static final byte ACTOR_NONE = 0;
+    static final byte ACTOR_LOCAL_PLAYER = 1;
+    static final byte ACTOR_NPC = 2;
+    static final byte ACTOR_PLAYER = 3;
+
+    // widget states in a CARGO_HOLD record
+    static final byte WIDGET_MISSING = 0;
+    static final byte WIDGET_VISIBLE = 1;
+    static final byte WIDGET_HIDDEN = 2;
+
+    static final int CARGO_HOLD_CHILDREN = 30;
+
+    private static final File TRACE_DIR = new File(new File(RuneLite.RUNELITE_DIR, "salvaging"), "traces");
+
+    private final Client client;
+    private final SalvageConfigCache configCache;
+    private final SalvageJournal journal;
+
+    private DataOutputStream out;
+
+    @Inject
+    private SalvageEventRecorder(Client client, SalvageConfigCache configCache, SalvageJournal journal)
+    {
+        this.client = client;
+        this.configCache = configCache;
+        this.journal = journal;
+    }
+
+    boolean isRecording()
+    {
+        return out != null;
+    }
+
+    /**
+     * Starts a new trace if recording is enabled and none is running. Only call at a reset point.
+     */
+    void startIfEnabled(long tick)
+    {
+        if (out != null || !configCache.get().isRecordEventTrace())
+        {
+            return;
+        }
+
+        if (!TRACE_DIR.exists() && !TRACE_DIR.mkdirs())
+        {
+            log.warn("unable to create trace directory {}", TRACE_DIR);
+            return;
+        }
+
+        String name = "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".bin";
+        File file = new File(TRACE_DIR, name);
+        try
+        {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(configCache.get().getCargoCapacityOverride());
+            writeJournal(tick);
+            log.debug("recording salvaging events to {}", file);
+        }
+        catch (IOException | UncheckedIOException ex)
+        {
+            log.warn("unable to start event trace", ex);
+            close();
+        }
+    }
+
+    /**
+     * Appends the final state for replay verification and closes the trace.
+     */
+    void stop(SalvageSnapshot finalState)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(EXPECTED);
+            out.writeBoolean(finalState.isOnBoat());
+            out.writeUTF(finalState.getPlayerActivity().name());
+            out.writeInt(finalState.getCargoUsed());
+            out.writeInt(finalState.getCargoMax());
+            out.writeBoolean(finalState.isCargoFull());
+            out.writeInt(finalState.getTrackedCrew());
+            out.writeInt(finalState.getActiveCrew());
+            out.writeInt(finalState.getTotalSalvages());
+            out.writeDouble(finalState.getAvgIntervalSeconds());
+            out.writeInt(finalState.getSecondsSinceLastSalvage());
+            out.writeInt(finalState.getCrystalCooldownRemaining());
+            out.writeInt(finalState.getCrewRows().size());
+            for (SalvageSnapshot.CrewRow row : finalState.getCrewRows())
+            {
+                out.writeUTF(row.getName());
+                out.writeInt(row.getCount());
+            }
+            out.writeInt(finalState.getFacilities().size());
+            for (SalvageSnapshot.FacilityRow row : finalState.getFacilities())
+            {
+                out.writeUTF(row.getKind().name());
+                out.writeInt(row.getNumber());
+                out.writeInt(row.getUses());
+                out.writeInt(row.getCooldownRemaining());
+                out.writeBoolean(row.isActive());
+            }
+        }
+        catch (IOException ex)
+        {
+            log.warn("unable to finish event trace", ex);
+        }
+        close();
+    }
+
+    // --------- records ---------
+
+    void recordGameTick()
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(GAME_TICK);
+            Player local = client.getLocalPlayer();
+            out.writeInt(local != null ? local.getWorldView().getId() : -1);
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    void recordChat(ChatMessage event)
+    {
+        ChatMessageType type = event.getType();
+        // player chat is never recorded, only game messages
+        if (out == null
+                || (type != ChatMessageType.GAMEMESSAGE && type != ChatMessageType.SPAM && type != ChatMessageType.MESBOX))
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(CHAT);
+            out.writeUTF(type.name());
+            out.writeUTF(event.getMessage());
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    void recordAnimation(AnimationChanged event)
+    {
+        if (out == null || event.getActor() == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(ANIMATION);
+            writeActor(event.getActor());
+            out.writeInt(event.getActor().getAnimation());
+            // hauls are counted at the hook nearest the player
+            writeNullableLocation(event.getActor().getLocalLocation());
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    void recordOverheadText(OverheadTextChanged event)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(OVERHEAD_TEXT);
+            writeActor(event.getActor());
+            writeNullableUTF(event.getOverheadText());
+            // where the crewmate stood decides which hook was used
+            Actor actor = event.getActor();
+            writeNullableLocation(actor != null ? actor.getLocalLocation() : null);
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    void recordNpcSpawned(NpcSpawned event)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        NPC npc = event.getNpc();
+        try
+        {
+            out.writeByte(NPC_SPAWNED);
+            out.writeInt(npc.getWorldView().getId());
+            out.writeInt(npc.getIndex());
+            out.writeInt(npc.getId());
+            writeNullableUTF(npc.getName());
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    void recordNpcDespawned(NpcDespawned event)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(NPC_DESPAWNED);
+            writeActor(event.getNpc());
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records a spawn on our world view, with the name its definition has right now
+     * (its impostor's for a multiloc), so a replay resolves it the same way.
+     */
+    void recordObjectSpawned(GameObject object)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        ObjectComposition composition = client.getObjectDefinition(object.getId());
+        try
+        {
+            out.writeByte(OBJECT_SPAWNED);
+            writeObject(object);
+            writeNullableUTF(composition != null ? SalvageFacilityRegistry.nameOf(composition) : null);
+            out.writeBoolean(composition != null && composition.getImpostorIds() != null);
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Records the despawn of a tracked facility; no other despawn changes anything.
+     */
+    void recordObjectDespawned(GameObject object)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(OBJECT_DESPAWNED);
+            writeObject(object);
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    void recordSailingXp()
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(SAILING_XP);
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    void recordWidgetLoaded(WidgetLoaded event)
+    {
+        writeGroup(WIDGET_LOADED, event.getGroupId());
+    }
+
+    void recordWidgetClosed(WidgetClosed event)
+    {
+        writeGroup(WIDGET_CLOSED, event.getGroupId());
+    }
+
+    void recordGameState(GameStateChanged event)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(GAME_STATE);
+            out.writeUTF(event.getGameState().name());
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Captures the cargo hold interface exactly as the cargo tracker is about to read it:
+     * state and text of the first {@link #CARGO_HOLD_CHILDREN} children.
+     */
+    void recordCargoHold()
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(CARGO_HOLD);
+            for (int child = 0; child < CARGO_HOLD_CHILDREN; child++)
+            {
+                Widget w = client.getWidget(SalvageCargoTracker.CARGOHOLD_GROUP_ID, child);
+                if (w == null)
+                {
+                    out.writeByte(WIDGET_MISSING);
+                    continue;
+                }
+
+                out.writeByte(w.isHidden() ? WIDGET_HIDDEN : WIDGET_VISIBLE);
+                writeNullableUTF(w.getText());
+            }
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Captures an update of the hold's item container, slot by slot. Only the hold's
+     * own containers are recorded.
+     */
+    void recordCargoItems(int containerId, Item[] items)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(CARGO_ITEMS);
+            out.writeInt(containerId);
+            out.writeInt(items.length);
+            for (Item item : items)
+            {
+                out.writeInt(item.getId());
+                out.writeInt(item.getQuantity());
+            }
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    // --------- helpers ---------
+
+    private void writeJournal(long tick) throws IOException
+    {
+        out.writeLong(tick);
+        out.writeInt(journal.size());
+        journal.replay(this::writeJournalRecord);
+    }
+
+    private void writeJournalRecord(long tick, int type, int crewId, int value)
+    {
+        try
+        {
+            out.writeLong(tick);
+            out.writeByte(type);
+            out.writeByte(crewId);
+            out.writeInt(value);
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeGroup(byte type, int groupId)
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.writeByte(type);
+            out.writeInt(groupId);
+        }
+        catch (IOException ex)
+        {
+            fail(ex);
+        }
+    }
+
+    private void writeActor(Actor actor) throws IOException
+    {
+        if (actor == null)
+        {
+            out.writeByte(ACTOR_NONE);
+            return;
+        }
+
+        if (actor instanceof NPC)
+        {
+            NPC npc = (NPC) actor;
+            out.writeByte(ACTOR_NPC);
+            out.writeInt(npc.getWorldView().getId());
+            out.writeInt(npc.getIndex());
+            out.writeInt(npc.getId());
+            return;
+        }
+
+        out.writeByte(actor == client.getLocalPlayer() ? ACTOR_LOCAL_PLAYER : ACTOR_PLAYER);
+        out.writeInt(actor.getWorldView().getId());
+    }
+
+    private void writeObject(GameObject object) throws IOException
+    {
+        LocalPoint location = object.getLocalLocation();
+        out.writeInt(object.getWorldView().getId());
+        out.writeInt(object.getId());
+        out.writeInt(object.getPlane());
+        out.writeInt(location.getX());
+        out.writeInt(location.getY());
+    }
+
+    private void writeNullableLocation(LocalPoint location) throws IOException
+    {
+        out.writeBoolean(location != null);
+        if (location != null)
+        {
+            out.writeInt(location.getX());
+            out.writeInt(location.getY());
+        }
+    }
+
+    private void writeNullableUTF(String s) throws IOException
+    {
+        out.writeBoolean(s != null);
+        if (s != null)
+        {
+            out.writeUTF(s);
+        }
+    }
+
+    private void fail(IOException ex)
+    {
+        log.warn("event trace write failed, recording stopped", ex);
+        close();
+    }
+
+    private void close()
+    {
+        if (out == null)
+        {
+            return;
+        }
+
+        try
+        {
+            out.close();
+        }
+        catch (IOException ex)
+        {
+            log.debug("unable to close event trace", ex);
+        }
+        out = null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.salvaging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free single-producer / single-consumer queue of small primitive
+ * records (a type, a tick and four ints), stored in parallel arrays so nothing is
+ * ever allocated per record.
+ *
+ * The producer only writes {@code tail} and the consumer only writes {@code head};
+ * each publishes with an ordered store and keeps a cached copy of the other side's
+ * index, so the common case touches no shared cache line but its own.
+ */
+class SalvageEventRing
+{
+    /**
+     * Receives drained records on the consumer thread.
+     */
+    interface Handler
+    {
+        void handle(byte type, long tick, int a, int b, int c, int d);
+    }
+
+    private final int mask;
+
+    private final byte[] types;
+    private final long[] ticks;
+    private final int[] as;
+    private final int[] bs;
+    private final int[] cs;
+    private final int[] ds;
+
+    // next slot to write; written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+    // next slot to read; written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+
+    // producer's last view of head, consumer's last view of tail
+    private long headCache;
+    private long tailCache;
+
+    SalvageEventRing(int capacity)
+    {
+        if (Integer.bitCount(capacity) != 1)
+        {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+
+        mask = capacity - 1;
+        types = new byte[capacity];
+        ticks = new long[capacity];
+        as = new int[capacity];
+        bs = new int[capacity];
+        cs = new int[capacity];
+        ds = new int[capacity];
+    }
+
+    /**
+     * Producer side. Returns false, without waiting, if the ring is full.
+     */
+    boolean offer(byte type, long tick, int a, int b, int c, int d)
+    {
+        long t = tail.get();
+        if (t - headCache > mask)
+        {
+            headCache = head.get();
+            if (t - headCache > mask)
+            {
+                return false;
+            }
+        }
+
+        int i = (int) (t & mask);
+        types[i] = type;
+        ticks[i] = tick;
+        as[i] = a;
+        bs[i] = b;
+        cs[i] = c;
+        ds[i] = d;
+
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side: hands every available record, up to {@code max}, to the handler.
+     * The slots are released only after the whole batch was handled, so once the ring
+     * reads as empty, everything offered before has been fully processed.
+     *
+     * @return number of records handled
+     */
+    int drain(Handler handler, int max)
+    {
+        long h = head.get();
+        if (h >= tailCache)
+        {
+            tailCache = tail.get();
+            if (h >= tailCache)
+            {
+                return 0;
+            }
+        }
+
+        int n = (int) Math.min(tailCache - h, max);
+        for (int k = 0; k < n; k++)
+        {
+            int i = (int) ((h + k) & mask);
+            handler.handle(types[i], ticks[i], as[i], bs[i], cs[i], ds[i]);
+        }
+
+        head.lazySet(h + n);
+        return n;
+    }
+
+    /**
+     * True if every offered record has been drained; safe from either side.
+     */
+    boolean isEmpty()
+    {
+        return head.get() == tail.get();
+    }
+}
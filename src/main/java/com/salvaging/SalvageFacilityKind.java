@@ -0,0 +1,55 @@
+package com.salvaging;
+
+import lombok.Getter;
+
+/**
+ * The kinds of boat facilities the plugin keeps track of, recognised by object
+ * name. Names are matched by what they contain, so every tier of a facility
+ * ("Iron salvaging hook", ...) counts.
+ */
+enum SalvageFacilityKind
+{
+    CRYSTAL_EXTRACTOR("crystal extractor", "Extractor", TickClock.secondsToTicks(60)),
+    SALVAGING_HOOK("salvaging hook", "Hook", 0),
+    CARGO_HOLD("cargo hold", "Hold", 0);
+
+    private static final SalvageFacilityKind[] VALUES = values();
+
+    private final String namePart;
+
+    // what the timing overlay calls it, before its number
+    @Getter
+    private final String label;
+
+    // ticks after a use before it can be used again, 0 if it has no cooldown
+    @Getter
+    private final int cooldownTicks;
+
+    SalvageFacilityKind(String namePart, String label, int cooldownTicks)
+    {
+        this.namePart = namePart;
+        this.label = label;
+        this.cooldownTicks = cooldownTicks;
+    }
+
+    static SalvageFacilityKind ofOrdinal(int ordinal)
+    {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * The kind of facility an object with the given name is, or null if it isn't one.
+     */
+    static SalvageFacilityKind ofName(String name)
+    {
+        String lower = name.toLowerCase();
+        for (SalvageFacilityKind kind : VALUES)
+        {
+            if (lower.contains(kind.namePart))
+            {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
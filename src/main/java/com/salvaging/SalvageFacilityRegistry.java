@@ -0,0 +1,250 @@
+package com.salvaging;
+
+import java.util.Arrays;
+import net.runelite.api.Client;
+import net.runelite.api.ObjectComposition;
+import net.runelite.client.util.Text;
+
+/**
+ * Fixed-size table of the facilities on our boat: crystal extractors, salvaging
+ * hooks and cargo holds, as many of each as the boat has. Entries come from
+ * object spawns in the boat's world view and go with their despawns; per-slot
+ * state lives in parallel primitive arrays, like {@link SalvageCrewTable}.
+ *
+ * Which objects are facilities is decided by name the first time an object id is
+ * seen and cached per id, like {@link SalvageCrewRoster} does for NPCs, since
+ * every object of a scene load goes past the spawn handler. Multilocs are the
+ * exception: their name is their current impostor's, so they are looked up on
+ * every spawn.
+ */
+class SalvageFacilityRegistry
+{
+    // more than any boat carries; must stay <= 32 for the int mask
+    static final int CAPACITY = 16;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte NOT_FACILITY = -1;
+
+    // object id -> UNKNOWN, NOT_FACILITY or kind ordinal + 1
+    private byte[] byObjectId = new byte[4096];
+
+    private final SalvageFacilityKind[] kinds = new SalvageFacilityKind[CAPACITY];
+    private final int[] objectIds = new int[CAPACITY];
+    private final int[] worldViewIds = new int[CAPACITY];
+    private final int[] planes = new int[CAPACITY];
+    private final int[] localX = new int[CAPACITY];
+    private final int[] localY = new int[CAPACITY];
+    private final int[] uses = new int[CAPACITY];
+    private final long[] lastUseTicks = new long[CAPACITY];
+
+    // bit n set = slot n holds a facility
+    private int occupiedMask = 0;
+
+    void clear()
+    {
+        occupiedMask = 0;
+    }
+
+    /**
+     * The kind of facility an object with this id is, or null if it isn't one.
+     * Call on every spawn: objects that change with the boat's state (multilocs)
+     * are resolved again each time, only plain ones are cached by id.
+     */
+    SalvageFacilityKind resolve(Client client, int objectId)
+    {
+        if (objectId < 0)
+        {
+            return null;
+        }
+
+        if (objectId < byObjectId.length)
+        {
+            byte known = byObjectId[objectId];
+            if (known != UNKNOWN)
+            {
+                return known == NOT_FACILITY ? null : SalvageFacilityKind.ofOrdinal(known - 1);
+            }
+        }
+
+        ObjectComposition composition = client.getObjectDefinition(objectId);
+        if (composition == null)
+        {
+            return null;
+        }
+
+        boolean multiloc = composition.getImpostorIds() != null;
+        String raw = nameOf(composition);
+        if (raw == null)
+        {
+            // definition not loaded yet, don't cache a guess
+            return null;
+        }
+
+        SalvageFacilityKind kind = SalvageFacilityKind.ofName(Text.removeTags(raw));
+        if (multiloc)
+        {
+            // what it is depends on varbits at the time, so the id alone says nothing
+            return kind;
+        }
+
+        if (objectId >= byObjectId.length)
+        {
+            byObjectId = Arrays.copyOf(byObjectId, Math.max(objectId + 1, byObjectId.length * 2));
+        }
+        byObjectId[objectId] = kind != null ? (byte) (kind.ordinal() + 1) : NOT_FACILITY;
+
+        return kind;
+    }
+
+    /**
+     * The name the object shows as right now: its impostor's for a multiloc.
+     */
+    static String nameOf(ObjectComposition composition)
+    {
+        if (composition.getImpostorIds() != null)
+        {
+            ObjectComposition impostor = composition.getImpostor();
+            return impostor != null ? impostor.getName() : null;
+        }
+        return composition.getName();
+    }
+
+    /**
+     * Returns the slot of the given object, or -1 if it isn't a tracked facility.
+     */
+    int find(int objectId, int worldView, int plane, int x, int y)
+    {
+        for (int mask = occupiedMask; mask != 0; mask &= mask - 1)
+        {
+            int slot = Integer.numberOfTrailingZeros(mask);
+            if (objectIds[slot] == objectId && worldViewIds[slot] == worldView
+                    && planes[slot] == plane && localX[slot] == x && localY[slot] == y)
+            {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a facility, returning its slot, or -1 if it is already tracked or the table is full.
+     */
+    int add(SalvageFacilityKind kind, int objectId, int worldView, int plane, int x, int y)
+    {
+        if (find(objectId, worldView, plane, x, y) >= 0)
+        {
+            return -1;
+        }
+
+        int free = ~occupiedMask & ((1 << CAPACITY) - 1);
+        if (free == 0)
+        {
+            return -1;
+        }
+
+        int slot = Integer.numberOfTrailingZeros(free);
+        kinds[slot] = kind;
+        objectIds[slot] = objectId;
+        worldViewIds[slot] = worldView;
+        planes[slot] = plane;
+        localX[slot] = x;
+        localY[slot] = y;
+        uses[slot] = 0;
+        lastUseTicks[slot] = TickClock.NEVER;
+
+        occupiedMask |= 1 << slot;
+        return slot;
+    }
+
+    void remove(int slot)
+    {
+        occupiedMask &= ~(1 << slot);
+    }
+
+    /**
+     * Counts a use of the facility.
+     */
+    void use(int slot, long tick)
+    {
+        uses[slot]++;
+        lastUseTicks[slot] = tick;
+    }
+
+    /**
+     * The facility of the kind closest to the given local point, or -1 if there is none.
+     */
+    int nearest(SalvageFacilityKind kind, int x, int y)
+    {
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (int mask = occupiedMask; mask != 0; mask &= mask - 1)
+        {
+            int slot = Integer.numberOfTrailingZeros(mask);
+            if (kinds[slot] != kind)
+            {
+                continue;
+            }
+
+            long dx = localX[slot] - x;
+            long dy = localY[slot] - y;
+            long distance = dx * dx + dy * dy;
+            if (distance < bestDistance)
+            {
+                best = slot;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The facility of the kind that a use nobody said the whereabouts of most
+     * likely was: the one off cooldown the longest, or if none is, the one closest
+     * to coming off it. -1 if there is none of the kind.
+     */
+    int nextOffCooldown(SalvageFacilityKind kind, long now)
+    {
+        int best = -1;
+        long bestReadyAt = Long.MAX_VALUE;
+        for (int mask = occupiedMask; mask != 0; mask &= mask - 1)
+        {
+            int slot = Integer.numberOfTrailingZeros(mask);
+            if (kinds[slot] != kind)
+            {
+                continue;
+            }
+
+            long readyAt = lastUseTicks[slot] == TickClock.NEVER
+                    ? Long.MIN_VALUE
+                    : lastUseTicks[slot] + kind.getCooldownTicks();
+            if (readyAt < bestReadyAt)
+            {
+                best = slot;
+                bestReadyAt = readyAt;
+            }
+        }
+        return best;
+    }
+
+    // --------- read-only view ---------
+
+    int size()
+    {
+        return Integer.bitCount(occupiedMask);
+    }
+
+    SalvageFacilityKind getKind(int slot)
+    {
+        return kinds[slot];
+    }
+
+    int getUses(int slot)
+    {
+        return uses[slot];
+    }
+
+    long getLastUseTick(int slot)
+    {
+        return lastUseTicks[slot];
+    }
+}
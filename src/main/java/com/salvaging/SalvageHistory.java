@@ -0,0 +1,124 @@
+package com.salvaging;
+
+import java.util.Arrays;
+
+/**
+ * The session bucketed by minute of game time: crew hooks, per crewmate and in
+ * total, and how full the hold was at the end of the minute. Filled in as the
+ * records come in, so the side panel never looks at single events.
+ *
+ * Stats worker only. A new {@link SalvageHistorySnapshot} is published whenever
+ * a minute finishes.
+ */
+class SalvageHistory
+{
+    static final int CREW = SalvageCrewRoster.CREW_NAMES.size();
+
+    static final int TICKS_PER_MINUTE = TickClock.secondsToTicks(60);
+
+    private static final int INITIAL_MINUTES = 64;
+
+    // the minute being filled, in clock minutes; NEVER until the first record
+    private long openMinute;
+    // its index in the arrays
+    private int open;
+
+    private int[] hooks;
+    private int[] cargoUsed;
+    private int[] cargoMax;
+    private int[][] crewHooks;
+    private int crewMask;
+
+    private long generation = 0;
+
+    private volatile SalvageHistorySnapshot snapshot = SalvageHistorySnapshot.EMPTY;
+
+    SalvageHistory()
+    {
+        clear();
+    }
+
+    /**
+     * Starts over. Arrays are never reused, published snapshots keep theirs.
+     */
+    void clear()
+    {
+        openMinute = TickClock.NEVER;
+        open = 0;
+        hooks = new int[INITIAL_MINUTES];
+        cargoUsed = new int[INITIAL_MINUTES];
+        cargoMax = new int[INITIAL_MINUTES];
+        crewHooks = new int[CREW][INITIAL_MINUTES];
+        crewMask = 0;
+        generation++;
+        snapshot = new SalvageHistorySnapshot(generation, 0, hooks, cargoUsed, cargoMax, crewHooks, 0);
+    }
+
+    SalvageHistorySnapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    void hook(long tick, int crewId)
+    {
+        advanceTo(tick);
+        hooks[open]++;
+        crewHooks[crewId][open]++;
+        crewMask |= 1 << crewId;
+    }
+
+    void cargo(long tick, int used, int max)
+    {
+        advanceTo(tick);
+        cargoUsed[open] = used;
+        cargoMax[open] = max;
+    }
+
+    /**
+     * Finishes every minute before the one the tick is in.
+     */
+    void advanceTo(long tick)
+    {
+        long minute = tick / TICKS_PER_MINUTE;
+        if (openMinute == TickClock.NEVER)
+        {
+            openMinute = minute;
+            return;
+        }
+        if (minute <= openMinute)
+        {
+            return;
+        }
+
+        while (openMinute < minute)
+        {
+            openMinute++;
+            open++;
+            if (open == hooks.length)
+            {
+                grow();
+            }
+            // the hold keeps what it had until told otherwise
+            cargoUsed[open] = cargoUsed[open - 1];
+            cargoMax[open] = cargoMax[open - 1];
+        }
+
+        // everything below the open minute is final from here on
+        snapshot = new SalvageHistorySnapshot(generation, open, hooks, cargoUsed, cargoMax, crewHooks, crewMask);
+    }
+
+    private void grow()
+    {
+        int length = hooks.length * 2;
+        hooks = Arrays.copyOf(hooks, length);
+        cargoUsed = Arrays.copyOf(cargoUsed, length);
+        cargoMax = Arrays.copyOf(cargoMax, length);
+
+        int[][] crew = new int[CREW][];
+        for (int i = 0; i < CREW; i++)
+        {
+            crew[i] = Arrays.copyOf(crewHooks[i], length);
+        }
+        crewHooks = crew;
+    }
+}
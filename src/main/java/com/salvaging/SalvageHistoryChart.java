@@ -0,0 +1,333 @@
+package com.salvaging;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import javax.swing.JComponent;
+import net.runelite.client.ui.ColorScheme;
+import net.runelite.client.ui.FontManager;
+
+/**
+ * One chart of the side panel: a column per minute of the session, newest on
+ * the right. Columns are painted into a cached image as their minute finishes;
+ * once the chart is full, older columns are scrolled left rather than painted
+ * again. Only a new session, a resize or a column that doesn't fit the scale
+ * draws the whole chart again. EDT only.
+ */
+abstract class SalvageHistoryChart extends JComponent
+{
+    static final int COLUMN_WIDTH = 2;
+
+    private static final int HEIGHT = 80;
+    // room at the top for the title
+    private static final int TOP = 14;
+
+    private final String title;
+
+    private BufferedImage image;
+    private long generation = -1;
+    // minutes painted so far
+    private int drawn = 0;
+    // value at the top of the chart
+    private double scale = 0;
+    private String scaleText = "";
+
+    SalvageHistoryChart(String title)
+    {
+        this.title = title;
+        setPreferredSize(new Dimension(0, HEIGHT));
+        setMaximumSize(new Dimension(Integer.MAX_VALUE, HEIGHT));
+        setFont(FontManager.getRunescapeSmallFont());
+    }
+
+    /**
+     * The minute's value, what the scale has to fit.
+     */
+    abstract double value(SalvageHistorySnapshot history, int minute);
+
+    /**
+     * Paints one minute; {@code x} is the left edge of its column. {@code joined} is
+     * true when the previous minute is on the chart too.
+     */
+    abstract void paintColumn(Graphics2D graphics, SalvageHistorySnapshot history, int minute, int x,
+                              int height, double scale, boolean joined);
+
+    abstract String scaleText(double scale);
+
+    /**
+     * Paints whatever minutes finished since the last update.
+     */
+    void update(SalvageHistorySnapshot history)
+    {
+        int width = getWidth();
+        int height = getHeight() - TOP;
+        if (width < COLUMN_WIDTH || height <= 0)
+        {
+            // not laid out yet
+            return;
+        }
+
+        int minutes = history.getMinutes();
+        boolean full = image == null || image.getWidth() != width || image.getHeight() != height
+                || history.getGeneration() != generation || minutes < drawn;
+        if (!full && minutes == drawn)
+        {
+            return;
+        }
+
+        int visible = width / COLUMN_WIDTH;
+        int first = Math.max(0, minutes - visible);
+        int oldFirst = Math.max(0, drawn - visible);
+
+        for (int m = full ? first : drawn; m < minutes && !full; m++)
+        {
+            full = value(history, m) > scale;
+        }
+        if (first - oldFirst >= visible)
+        {
+            full = true;
+        }
+
+        if (image == null || image.getWidth() != width || image.getHeight() != height)
+        {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        Graphics2D graphics = image.createGraphics();
+        try
+        {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            int from;
+            if (full)
+            {
+                double max = 0;
+                for (int m = first; m < minutes; m++)
+                {
+                    max = Math.max(max, value(history, m));
+                }
+                scale = niceScale(max);
+                scaleText = scaleText(scale);
+
+                clear(graphics, 0, width, height);
+                from = first;
+            }
+            else
+            {
+                int shift = (first - oldFirst) * COLUMN_WIDTH;
+                if (shift > 0)
+                {
+                    graphics.copyArea(shift, 0, width - shift, height, -shift, 0);
+                }
+                int x = (drawn - first) * COLUMN_WIDTH;
+                clear(graphics, x, width - x, height);
+                from = drawn;
+            }
+
+            for (int m = from; m < minutes; m++)
+            {
+                paintColumn(graphics, history, m, (m - first) * COLUMN_WIDTH, height, scale, m > first);
+            }
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+
+        generation = history.getGeneration();
+        drawn = minutes;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        g.setColor(ColorScheme.DARKER_GRAY_COLOR);
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        if (image != null)
+        {
+            g.drawImage(image, 0, TOP, null);
+        }
+
+        g.setFont(getFont());
+        g.setColor(ColorScheme.LIGHT_GRAY_COLOR);
+        int baseline = TOP - 3;
+        g.drawString(title, 2, baseline);
+        g.drawString(scaleText, getWidth() - 2 - g.getFontMetrics().stringWidth(scaleText), baseline);
+    }
+
+    /**
+     * Y of a value on a chart of the given height.
+     */
+    static int y(double value, int height, double scale)
+    {
+        return height - 1 - (int) Math.round(Math.min(value, scale) / scale * (height - 1));
+    }
+
+    private static void clear(Graphics2D graphics, int x, int width, int height)
+    {
+        graphics.setColor(ColorScheme.DARKER_GRAY_COLOR);
+        graphics.fillRect(x, 0, width, height);
+    }
+
+    /**
+     * 1, 2 or 5 times a power of ten, with some room above the max.
+     */
+    private static double niceScale(double max)
+    {
+        if (max <= 0)
+        {
+            return 1;
+        }
+
+        double target = max * 1.2;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(target)));
+        for (int step : new int[]{1, 2, 5})
+        {
+            if (step * magnitude >= target)
+            {
+                return step * magnitude;
+            }
+        }
+        return 10 * magnitude;
+    }
+
+    // --------- the panel's charts ---------
+
+    /**
+     * Hooks per hour, averaged over the last few minutes so single minutes don't spike.
+     */
+    static class HookRate extends SalvageHistoryChart
+    {
+        private static final int AVERAGE_MINUTES = 5;
+
+        HookRate()
+        {
+            super("Hooks/hr");
+        }
+
+        @Override
+        double value(SalvageHistorySnapshot history, int minute)
+        {
+            int from = Math.max(0, minute - AVERAGE_MINUTES + 1);
+            int hooks = 0;
+            for (int m = from; m <= minute; m++)
+            {
+                hooks += history.hooks(m);
+            }
+            return hooks * 60.0 / (minute - from + 1);
+        }
+
+        @Override
+        void paintColumn(Graphics2D graphics, SalvageHistorySnapshot history, int minute, int x,
+                         int height, double scale, boolean joined)
+        {
+            int y = y(value(history, minute), height, scale);
+            graphics.setColor(ColorScheme.BRAND_ORANGE);
+            if (joined)
+            {
+                graphics.drawLine(x - COLUMN_WIDTH, y(value(history, minute - 1), height, scale), x, y);
+            }
+            graphics.drawLine(x, y, x + COLUMN_WIDTH - 1, y);
+        }
+
+        @Override
+        String scaleText(double scale)
+        {
+            return SalvageText.number((int) scale);
+        }
+    }
+
+    /**
+     * How full the hold was at the end of each minute.
+     */
+    static class CargoFill extends SalvageHistoryChart
+    {
+        CargoFill()
+        {
+            super("Cargo fill");
+        }
+
+        @Override
+        double value(SalvageHistorySnapshot history, int minute)
+        {
+            return 1.0;
+        }
+
+        @Override
+        void paintColumn(Graphics2D graphics, SalvageHistorySnapshot history, int minute, int x,
+                         int height, double scale, boolean joined)
+        {
+            double fill = history.cargoFill(minute);
+            if (fill < 0)
+            {
+                return;
+            }
+
+            int y = y(fill, height, 1.0);
+            graphics.setColor(fill >= 1.0 ? Color.RED : ColorScheme.PROGRESS_COMPLETE_COLOR);
+            double previous = joined ? history.cargoFill(minute - 1) : -1;
+            if (previous >= 0)
+            {
+                graphics.drawLine(x - COLUMN_WIDTH, y(previous, height, 1.0), x, y);
+            }
+            graphics.drawLine(x, y, x + COLUMN_WIDTH - 1, y);
+        }
+
+        @Override
+        String scaleText(double scale)
+        {
+            return "100%";
+        }
+    }
+
+    /**
+     * Hooks per minute, stacked by crewmate.
+     */
+    static class CrewHooks extends SalvageHistoryChart
+    {
+        CrewHooks()
+        {
+            super("Crew hooks/min");
+        }
+
+        @Override
+        double value(SalvageHistorySnapshot history, int minute)
+        {
+            return history.hooks(minute);
+        }
+
+        @Override
+        void paintColumn(Graphics2D graphics, SalvageHistorySnapshot history, int minute, int x,
+                         int height, double scale, boolean joined)
+        {
+            int hooks = 0;
+            int top = height;
+            for (int mask = history.getCrewMask(); mask != 0; mask &= mask - 1)
+            {
+                int crewId = Integer.numberOfTrailingZeros(mask);
+                int count = history.crewHooks(crewId, minute);
+                if (count == 0)
+                {
+                    continue;
+                }
+
+                hooks += count;
+                int y = y(hooks, height, scale);
+                graphics.setColor(SalvagePanel.crewColor(crewId));
+                graphics.fillRect(x, y, COLUMN_WIDTH, top - y);
+                top = y;
+            }
+        }
+
+        @Override
+        String scaleText(double scale)
+        {
+            return SalvageText.number((int) scale);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.salvaging;
+
+import lombok.Getter;
+
+/**
+ * The session history as of the last finished minute, for the side panel.
+ *
+ * Shares its arrays with {@link SalvageHistory}, which only ever writes past
+ * {@link #getMinutes()} of a published snapshot (or into new arrays), so
+ * everything below it can be read from any thread without copying.
+ */
+class SalvageHistorySnapshot
+{
+    static final SalvageHistorySnapshot EMPTY = new SalvageHistorySnapshot(
+            0, 0, new int[0], new int[0], new int[0], new int[SalvageHistory.CREW][0], 0);
+
+    // changes when the history starts over, so readers know to redraw everything
+    @Getter
+    private final long generation;
+
+    // finished minutes
+    @Getter
+    private final int minutes;
+
+    private final int[] hooks;
+    private final int[] cargoUsed;
+    private final int[] cargoMax;
+    private final int[][] crewHooks;
+
+    // bit n set = crew id n hooked at least once
+    @Getter
+    private final int crewMask;
+
+    SalvageHistorySnapshot(long generation, int minutes, int[] hooks, int[] cargoUsed, int[] cargoMax,
+                           int[][] crewHooks, int crewMask)
+    {
+        this.generation = generation;
+        this.minutes = minutes;
+        this.hooks = hooks;
+        this.cargoUsed = cargoUsed;
+        this.cargoMax = cargoMax;
+        this.crewHooks = crewHooks;
+        this.crewMask = crewMask;
+    }
+
+    /**
+     * Crew hooks in the minute.
+     */
+    int hooks(int minute)
+    {
+        return hooks[minute];
+    }
+
+    /**
+     * How full the hold was at the end of the minute, 0 to 1, or -1 if unknown.
+     */
+    double cargoFill(int minute)
+    {
+        int max = cargoMax[minute];
+        return max > 0 ? Math.min(1.0, (double) cargoUsed[minute] / max) : -1;
+    }
+
+    /**
+     * Hooks of one crewmate in the minute.
+     */
+    int crewHooks(int crewId, int minute)
+    {
+        return crewHooks[crewId][minute];
+    }
+}
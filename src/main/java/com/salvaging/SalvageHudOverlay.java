@@ -0,0 +1,104 @@
+package com.salvaging;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.util.List;
+import javax.inject.Inject;
+
+import net.runelite.client.ui.overlay.LayoutableRenderableEntity;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+
+/**
+ * The status, cargo, crew, timing and yield sections stacked in one panel, drawn
+ * instead of the separate overlays when {@link SalvagingConfig#hudMode()} is on.
+ *
+ * The sections are only re-added when a new snapshot has been published or the
+ * config has changed; every other frame reuses the panel as it was left, or just
+ * the image of it with {@link SalvagingConfig#cachePanelImages()}.
+ */
+class SalvageHudOverlay extends OverlayPanel
+{
+    private final SalvagingPlugin plugin;
+    private final SalvageConfigCache configCache;
+    private final SalvagePerfCounters perf;
+
+    private final SalvagingOverlay statusOverlay;
+    private final SalvageCargoOverlay cargoOverlay;
+    private final SalvageCrewOverlay crewOverlay;
+    private final SalvageTimingOverlay timingOverlay;
+    private final SalvageYieldOverlay yieldOverlay;
+
+    private final SalvageRenderCache renderCache = new SalvageRenderCache(this::paintPanel);
+
+    // what the panel was last built from
+    private long builtVersion = -1;
+    private SalvageSettings builtSettings;
+
+    @Inject
+    private SalvageHudOverlay(SalvagingPlugin plugin, SalvageConfigCache configCache, SalvagePerfCounters perf,
+                              SalvagingOverlay statusOverlay, SalvageCargoOverlay cargoOverlay,
+                              SalvageCrewOverlay crewOverlay, SalvageTimingOverlay timingOverlay,
+                              SalvageYieldOverlay yieldOverlay)
+    {
+        super(plugin);
+        this.plugin = plugin;
+        this.configCache = configCache;
+        this.perf = perf;
+        this.statusOverlay = statusOverlay;
+        this.cargoOverlay = cargoOverlay;
+        this.crewOverlay = crewOverlay;
+        this.timingOverlay = timingOverlay;
+        this.yieldOverlay = yieldOverlay;
+        setPosition(OverlayPosition.TOP_LEFT);
+        // the panel is kept between frames and only rebuilt when something changed
+        setClearChildren(false);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        long start = perf.start();
+        Dimension size = renderPanel(graphics);
+        perf.stop(SalvagePerfProbe.HUD_OVERLAY, start);
+        return size;
+    }
+
+    private Dimension renderPanel(Graphics2D graphics)
+    {
+        SalvageSettings settings = configCache.get();
+
+        if (!settings.isHudMode())
+        {
+            // force a rebuild if it's switched back on
+            builtSettings = null;
+            renderCache.clear();
+            return null;
+        }
+        return renderCache.render(graphics, plugin.getSnapshot(), settings, getPreferredSize());
+    }
+
+    private Dimension paintPanel(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        List<LayoutableRenderableEntity> children = panelComponent.getChildren();
+
+        if (snapshot.getVersion() != builtVersion || settings != builtSettings)
+        {
+            builtVersion = snapshot.getVersion();
+            builtSettings = settings;
+
+            children.clear();
+            statusOverlay.addSection(children, snapshot, settings);
+            cargoOverlay.addSection(children, snapshot, settings);
+            crewOverlay.addSection(children, snapshot, settings);
+            timingOverlay.addSection(children, snapshot, settings);
+            yieldOverlay.addSection(children, snapshot, settings);
+        }
+
+        if (children.isEmpty())
+        {
+            return null;
+        }
+        return super.render(graphics);
+    }
+}
@@ -0,0 +1,112 @@
+package com.salvaging;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory histogram of intervals in ticks, for percentiles that a single
+ * stalled hook can't drag around the way it does a mean.
+ *
+ * Buckets are log-linear (like HdrHistogram): intervals below {@link #SUB_BUCKETS}
+ * ticks are counted exactly, longer ones in {@link #SUB_BUCKETS} buckets per power
+ * of two, so every recorded value is within about 6% of its bucket. Recording is
+ * a few shifts and an array increment; reading a percentile walks the buckets.
+ */
+class SalvageIntervalHistogram
+{
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // intervals are clamped here (2^30 ticks is over 20 years)
+    private static final int MAX_MSB = 30;
+
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_MSB - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKETS];
+    private int total = 0;
+    private long max = 0;
+
+    void clear()
+    {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    void record(long ticks)
+    {
+        if (ticks < 0)
+        {
+            return;
+        }
+
+        counts[bucketOf(ticks)]++;
+        total++;
+        max = Math.max(max, ticks);
+    }
+
+    int count()
+    {
+        return total;
+    }
+
+    long maxTicks()
+    {
+        return max;
+    }
+
+    /**
+     * Interval at the given quantile (0..1) in ticks, as the middle of its bucket
+     * and never above the largest interval seen; 0 when nothing was recorded.
+     */
+    double percentileTicks(double quantile)
+    {
+        if (total == 0)
+        {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            seen += counts[b];
+            if (seen >= rank)
+            {
+                return Math.min(lowestOf(b) + (widthOf(b) - 1) / 2.0, max);
+            }
+        }
+        return max;
+    }
+
+    // --------- bucket math ---------
+
+    private static int bucketOf(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+
+        int msb = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MSB);
+        int shift = msb - SUB_BITS;
+        int sub = (int) Math.min((value >>> shift) - SUB_BUCKETS, SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    private static long lowestOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+
+    private static long widthOf(int bucket)
+    {
+        return bucket < SUB_BUCKETS ? 1 : 1L << ((bucket - SUB_BUCKETS) / SUB_BUCKETS);
+    }
+}
@@ -0,0 +1,183 @@
+package com.salvaging;
+
+import java.util.Arrays;
+
+/**
+ * Item id to quantity map on two primitive arrays (open addressing, linear
+ * probing), so counting items never boxes. Entries whose quantity drops to zero
+ * are removed.
+ */
+class SalvageItemCounts
+{
+    /**
+     * Receives every item with a non-zero quantity, in no particular order.
+     */
+    interface Visitor
+    {
+        void item(int itemId, int quantity);
+    }
+
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    SalvageItemCounts()
+    {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    void clear()
+    {
+        if (size > 0)
+        {
+            Arrays.fill(keys, EMPTY);
+            Arrays.fill(values, 0);
+            size = 0;
+        }
+    }
+
+    int get(int itemId)
+    {
+        int i = indexOf(itemId);
+        return keys[i] == itemId ? values[i] : 0;
+    }
+
+    /**
+     * Adds {@code delta} (which may be negative) to the item's quantity.
+     *
+     * @return the new quantity
+     */
+    int add(int itemId, int delta)
+    {
+        if (itemId < 0)
+        {
+            throw new IllegalArgumentException("item id " + itemId);
+        }
+
+        int i = indexOf(itemId);
+        if (keys[i] == itemId)
+        {
+            int quantity = values[i] + delta;
+            if (quantity == 0)
+            {
+                removeAt(i);
+            }
+            else
+            {
+                values[i] = quantity;
+            }
+            return quantity;
+        }
+
+        if (delta == 0)
+        {
+            return 0;
+        }
+
+        keys[i] = itemId;
+        values[i] = delta;
+        if (++size > keys.length / 2)
+        {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    void forEach(Visitor visitor)
+    {
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (keys[i] != EMPTY)
+            {
+                visitor.item(keys[i], values[i]);
+            }
+        }
+    }
+
+    // --------- helpers ---------
+
+    /**
+     * Slot holding the item, or the empty slot where it would go.
+     */
+    private int indexOf(int itemId)
+    {
+        int mask = keys.length - 1;
+        int i = mix(itemId) & mask;
+        while (keys[i] != EMPTY && keys[i] != itemId)
+        {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Removes the entry at {@code i} and shifts later entries of the same probe
+     * run back, so lookups never need tombstones.
+     */
+    private void removeAt(int i)
+    {
+        int mask = keys.length - 1;
+        int hole = i;
+        int j = i;
+        while (true)
+        {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY)
+            {
+                break;
+            }
+
+            int home = mix(keys[j]) & mask;
+            // move j into the hole unless its home lies cyclically in (hole, j]
+            boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!stays)
+            {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+        size--;
+    }
+
+    private void rehash(int capacity)
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != EMPTY)
+            {
+                int j = indexOf(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int mix(int itemId)
+    {
+        // item ids come in runs; spread them over the table
+        return itemId * 0x9E3779B9 >>> 16;
+    }
+}
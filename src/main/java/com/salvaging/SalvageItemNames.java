@@ -0,0 +1,27 @@
+package com.salvaging;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.client.game.ItemManager;
+
+/**
+ * Item names for the yield lines, from the {@link ItemManager}. The overlay only
+ * asks once per item id shown on a line. Client thread only, like the item manager.
+ */
+@Singleton
+class SalvageItemNames
+{
+    private final ItemManager itemManager;
+
+    // not private: the headless harness stands in its own names
+    @Inject
+    SalvageItemNames(ItemManager itemManager)
+    {
+        this.itemManager = itemManager;
+    }
+
+    String name(int itemId)
+    {
+        return itemManager.getItemComposition(itemId).getName();
+    }
+}
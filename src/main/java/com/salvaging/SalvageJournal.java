@@ -0,0 +1,283 @@
+package com.salvaging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+/**
+ * Append-only journal of the session stats, so they survive hops, logouts and restarts.
+ *
+ * Records are fixed size and written straight into a memory-mapped file, so appending
+ * is a few stores into memory and never a syscall; the OS writes the pages back on
+ * its own, and they survive the client crashing. The file is only forced on close.
+ *
+ * A session ends once nothing was written to it for {@link #SESSION_TIMEOUT_MILLIS};
+ * opening the journal after that starts a new one instead of recovering the old.
+ *
+ * Every account has a journal of its own, opened once it has logged in. The file
+ * is locked while it is open; a second client on the same account runs without
+ * a journal rather than write over the first one's records.
+ *
+ * Layout: a {@link #HEADER_BYTES} header (magic, version, record count, session
+ * start and last write time, last tick) followed by {@link #RECORD_BYTES} records
+ * of long tick, byte type, byte crew id, short (unused), int value.
+ */
+@Slf4j
+@Singleton
+class SalvageJournal
+{
+    static final byte HOOK = 1;             // crew id
+    static final byte CRYSTAL = 2;          // (no value)
+    static final byte CARGO_USED = 3;       // value = used
+    static final byte CARGO_CAPACITY = 4;   // value = capacity read from the hold
+    static final byte CARGO_FULL = 5;       // value = 1 if full
+    static final byte ITEM_YIELD = 6;       // crew id = yield source, value = quantity << 16 | item id
+    static final byte ITEM_VALUE = 7;       // crew id = yield source, value = GE value of that yield
+
+    static final long SESSION_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private static final int MAGIC = 0x534c564a; // "SLVJ"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_BYTES = 16;
+
+    private static final int COUNT_OFFSET = 8;
+    private static final int SESSION_START_OFFSET = 16;
+    private static final int LAST_WRITE_OFFSET = 24;
+    private static final int LAST_TICK_OFFSET = 32;
+
+    private static final int INITIAL_RECORDS = 64 * 1024;
+    private static final int MAX_RECORDS = 4 * 1024 * 1024;
+
+    private static final File JOURNAL_DIR = new File(RuneLite.RUNELITE_DIR, "salvaging");
+
+    /**
+     * Receives the records of the current session, oldest first.
+     */
+    interface Visitor
+    {
+        void record(long tick, int type, int crewId, int value);
+    }
+
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer map;
+    private int count;
+    private int capacity;
+
+    @Inject
+    private SalvageJournal()
+    {
+    }
+
+    boolean isOpen()
+    {
+        return map != null;
+    }
+
+    /**
+     * Number of records in the current session.
+     */
+    int size()
+    {
+        return count;
+    }
+
+    /**
+     * Maps the account's journal file, starting a new session if the one in it has timed out.
+     */
+    void open(long accountHash)
+    {
+        if (map != null)
+        {
+            return;
+        }
+
+        if (!JOURNAL_DIR.exists() && !JOURNAL_DIR.mkdirs())
+        {
+            log.warn("unable to create journal directory {}", JOURNAL_DIR);
+            return;
+        }
+
+        File file = new File(JOURNAL_DIR, "session-" + Long.toHexString(accountHash) + ".journal");
+        try
+        {
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            lock = tryLock(channel);
+            if (lock == null)
+            {
+                log.info("session journal {} is in use by another client, running without it", file);
+                close();
+                return;
+            }
+
+            long existing = channel.size();
+            int records = existing > HEADER_BYTES
+                    ? (int) Math.min((existing - HEADER_BYTES) / RECORD_BYTES, MAX_RECORDS)
+                    : 0;
+            remap(Math.max(records, INITIAL_RECORDS));
+
+            long now = System.currentTimeMillis();
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION
+                    || map.getInt(COUNT_OFFSET) < 0 || map.getInt(COUNT_OFFSET) > capacity
+                    || now - map.getLong(LAST_WRITE_OFFSET) > SESSION_TIMEOUT_MILLIS)
+            {
+                startSession(now);
+            }
+            count = map.getInt(COUNT_OFFSET);
+            log.debug("journal opened with {} records", count);
+        }
+        catch (IOException ex)
+        {
+            log.warn("unable to open session journal", ex);
+            close();
+        }
+    }
+
+    void close()
+    {
+        if (map != null)
+        {
+            map.force();
+        }
+        map = null;
+        count = 0;
+        capacity = 0;
+
+        if (channel != null)
+        {
+            try
+            {
+                // releases the lock too
+                channel.close();
+            }
+            catch (IOException ex)
+            {
+                log.debug("unable to close session journal", ex);
+            }
+            channel = null;
+            lock = null;
+        }
+    }
+
+    /**
+     * Feeds every record of the current session to the visitor.
+     *
+     * @return the last tick the session saw, or 0 if the journal isn't open
+     */
+    long replay(Visitor visitor)
+    {
+        if (map == null)
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            int pos = HEADER_BYTES + i * RECORD_BYTES;
+            visitor.record(map.getLong(pos), map.get(pos + 8), map.get(pos + 9), map.getInt(pos + 12));
+        }
+        return map.getLong(LAST_TICK_OFFSET);
+    }
+
+    void append(long tick, byte type, int crewId, int value)
+    {
+        if (map == null || (count == capacity && !grow()))
+        {
+            return;
+        }
+
+        int pos = HEADER_BYTES + count * RECORD_BYTES;
+        map.putLong(pos, tick);
+        map.put(pos + 8, type);
+        map.put(pos + 9, (byte) crewId);
+        map.putInt(pos + 12, value);
+
+        // the count is published last, so a torn write is never replayed
+        map.putInt(COUNT_OFFSET, ++count);
+        touch(tick);
+    }
+
+    /**
+     * Called every game tick to keep the session alive and remember the clock.
+     */
+    void touch(long tick)
+    {
+        if (map == null)
+        {
+            return;
+        }
+
+        map.putLong(LAST_WRITE_OFFSET, System.currentTimeMillis());
+        map.putLong(LAST_TICK_OFFSET, tick);
+    }
+
+    // --------- helpers ---------
+
+    /**
+     * The file's lock, or null if another client holds it.
+     */
+    private static FileLock tryLock(FileChannel channel) throws IOException
+    {
+        try
+        {
+            return channel.tryLock();
+        }
+        catch (OverlappingFileLockException ex)
+        {
+            // held by this process already
+            return null;
+        }
+    }
+
+    private void startSession(long now)
+    {
+        map.putInt(0, MAGIC);
+        map.putInt(4, VERSION);
+        map.putInt(COUNT_OFFSET, 0);
+        map.putLong(SESSION_START_OFFSET, now);
+        map.putLong(LAST_WRITE_OFFSET, now);
+        map.putLong(LAST_TICK_OFFSET, 0);
+    }
+
+    private boolean grow()
+    {
+        if (capacity >= MAX_RECORDS)
+        {
+            log.warn("session journal is full, not recording any more of this session");
+            close();
+            return false;
+        }
+
+        try
+        {
+            remap(Math.min(capacity * 2, MAX_RECORDS));
+            return true;
+        }
+        catch (IOException ex)
+        {
+            log.warn("unable to grow session journal", ex);
+            close();
+            return false;
+        }
+    }
+
+    private void remap(int records) throws IOException
+    {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) records * RECORD_BYTES);
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = records;
+    }
+}
@@ -0,0 +1,145 @@
+package com.salvaging;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.image.BufferedImage;
+import javax.inject.Inject;
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import net.runelite.client.ui.ColorScheme;
+import net.runelite.client.ui.FontManager;
+import net.runelite.client.ui.PluginPanel;
+
+/**
+ * Side panel with the session so far, minute by minute: the crew's hook rate,
+ * how full the hold was and who brought the hooks in.
+ *
+ * Runs on the EDT and only reads the history the stats worker publishes once a
+ * minute, so it never waits on the client thread or the worker. It only looks
+ * while it is open.
+ */
+class SalvagePanel extends PluginPanel
+{
+    // the history only changes once a minute; this just keeps the wait short
+    private static final int REFRESH_MILLIS = 1000;
+
+    private static final Color[] CREW_COLORS = {
+            new Color(0xE6, 0x9F, 0x00),
+            new Color(0x56, 0xB4, 0xE9),
+            new Color(0x00, 0x9E, 0x73),
+            new Color(0xF0, 0xE4, 0x42),
+            new Color(0x00, 0x72, 0xB2),
+            new Color(0xD5, 0x5E, 0x00),
+            new Color(0xCC, 0x79, 0xA7),
+            new Color(0x99, 0x99, 0x99),
+            new Color(0xAA, 0x44, 0x66),
+            new Color(0x44, 0xAA, 0x99),
+    };
+
+    private final SalvageSessionStats stats;
+
+    private final SalvageHistoryChart[] charts = {
+            new SalvageHistoryChart.HookRate(),
+            new SalvageHistoryChart.CargoFill(),
+            new SalvageHistoryChart.CrewHooks(),
+    };
+
+    private final JPanel legend = new JPanel(new GridLayout(0, 2, 4, 2));
+    private int legendMask = -1;
+
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    @Inject
+    private SalvagePanel(SalvageSessionStats stats)
+    {
+        this.stats = stats;
+
+        setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+        setBackground(ColorScheme.DARK_GRAY_COLOR);
+
+        for (SalvageHistoryChart chart : charts)
+        {
+            chart.setAlignmentX(LEFT_ALIGNMENT);
+            add(chart);
+            add(Box.createVerticalStrut(6));
+        }
+
+        legend.setOpaque(false);
+        legend.setAlignmentX(LEFT_ALIGNMENT);
+        legend.setBorder(BorderFactory.createEmptyBorder(2, 2, 2, 2));
+        add(legend);
+    }
+
+    static Color crewColor(int crewId)
+    {
+        return CREW_COLORS[crewId % CREW_COLORS.length];
+    }
+
+    /**
+     * The panel's toolbar icon: a small bar chart.
+     */
+    static BufferedImage icon()
+    {
+        BufferedImage icon = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = icon.createGraphics();
+        graphics.setColor(ColorScheme.BRAND_ORANGE);
+        graphics.fillRect(2, 9, 3, 6);
+        graphics.fillRect(6, 5, 3, 10);
+        graphics.fillRect(10, 2, 3, 13);
+        graphics.dispose();
+        return icon;
+    }
+
+    @Override
+    public void onActivate()
+    {
+        refresh();
+        timer.start();
+    }
+
+    @Override
+    public void onDeactivate()
+    {
+        timer.stop();
+    }
+
+    void stop()
+    {
+        timer.stop();
+    }
+
+    private void refresh()
+    {
+        SalvageHistorySnapshot history = stats.getHistory();
+        for (SalvageHistoryChart chart : charts)
+        {
+            chart.update(history);
+        }
+
+        if (history.getCrewMask() != legendMask)
+        {
+            legendMask = history.getCrewMask();
+            rebuildLegend();
+        }
+    }
+
+    private void rebuildLegend()
+    {
+        legend.removeAll();
+        for (int mask = legendMask; mask != 0; mask &= mask - 1)
+        {
+            int crewId = Integer.numberOfTrailingZeros(mask);
+            JLabel label = new JLabel(SalvageCrewRoster.nameOf(crewId));
+            label.setFont(FontManager.getRunescapeSmallFont());
+            label.setForeground(crewColor(crewId));
+            legend.add(label);
+        }
+        legend.revalidate();
+        legend.repaint();
+    }
+}
@@ -0,0 +1,235 @@
+package com.salvaging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.client.RuneLite;
+
+/**
+ * Always-on timing of the plugin's own work, so a stutter report can be checked
+ * against what the plugin actually cost.
+ *
+ * Each {@link SalvagePerfProbe} keeps an invocation count, the total and largest
+ * time and a histogram of times in power-of-two nanosecond buckets. Everything is
+ * primitive slots in a few stripes of {@link AtomicLongArray}s, so recording never
+ * allocates. The client thread and the stats worker each have a stripe of their own;
+ * any other thread (the config UI, ...) shares one of the rest. Reads sum the
+ * stripes and may be a record or two behind.
+ */
+@Slf4j
+@Singleton
+class SalvagePerfCounters
+{
+    private static final File REPORT_DIR = new File(RuneLite.RUNELITE_DIR, "salvaging");
+
+    private static final SalvagePerfProbe[] PROBES = SalvagePerfProbe.values();
+
+    private static final int CLIENT_STRIPE = 0;
+    private static final int WORKER_STRIPE = 1;
+    // stripes 2 and 3, by thread id
+    private static final int SHARED_STRIPE = 2;
+    private static final int STRIPES = 4;
+
+    // bucket b counts times in [2^(b-1), 2^b) ns; the last one takes everything from ~9 minutes up
+    private static final int BUCKETS = 40;
+
+    // slots of one probe, padded to whole cache lines
+    private static final int COUNT = 0;
+    private static final int TOTAL = 1;
+    private static final int MAX = 2;
+    private static final int FIRST_BUCKET = 3;
+    private static final int SLOTS = (FIRST_BUCKET + BUCKETS + 7) & ~7;
+
+    private final Client client;
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+    private final ThreadLocal<AtomicLongArray> threadStripe = ThreadLocal.withInitial(this::stripeOfThread);
+
+    @Inject
+    private SalvagePerfCounters(Client client)
+    {
+        this.client = client;
+        for (int i = 0; i < STRIPES; i++)
+        {
+            stripes[i] = new AtomicLongArray(PROBES.length * SLOTS);
+        }
+    }
+
+    // --------- recording ---------
+
+    /**
+     * Start time to hand to {@link #stop}.
+     */
+    long start()
+    {
+        return System.nanoTime();
+    }
+
+    void stop(SalvagePerfProbe probe, long start)
+    {
+        record(probe, System.nanoTime() - start);
+    }
+
+    /**
+     * Gives the calling thread, the stats worker, a stripe of its own.
+     */
+    void claimWorkerStripe()
+    {
+        threadStripe.set(stripes[WORKER_STRIPE]);
+    }
+
+    void record(SalvagePerfProbe probe, long nanos)
+    {
+        AtomicLongArray stripe = threadStripe.get();
+        int base = probe.ordinal() * SLOTS;
+
+        stripe.incrementAndGet(base + COUNT);
+        stripe.addAndGet(base + TOTAL, nanos);
+        stripe.accumulateAndGet(base + MAX, nanos, Math::max);
+        stripe.incrementAndGet(base + FIRST_BUCKET + bucketOf(nanos));
+    }
+
+    /**
+     * Forgets everything recorded so far. Records racing with this may survive it.
+     */
+    void clear()
+    {
+        for (AtomicLongArray stripe : stripes)
+        {
+            for (int i = 0; i < stripe.length(); i++)
+            {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    // --------- reading ---------
+
+    long count(SalvagePerfProbe probe)
+    {
+        return sum(probe.ordinal() * SLOTS + COUNT);
+    }
+
+    long totalNanos(SalvagePerfProbe probe)
+    {
+        return sum(probe.ordinal() * SLOTS + TOTAL);
+    }
+
+    long maxNanos(SalvagePerfProbe probe)
+    {
+        int slot = probe.ordinal() * SLOTS + MAX;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes)
+        {
+            max = Math.max(max, stripe.get(slot));
+        }
+        return max;
+    }
+
+    /**
+     * Time at the given quantile (0..1), as the upper end of its bucket and never
+     * above the largest time seen; 0 when nothing was recorded.
+     */
+    long percentileNanos(SalvagePerfProbe probe, double quantile)
+    {
+        long count = count(probe);
+        if (count == 0)
+        {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        int base = probe.ordinal() * SLOTS + FIRST_BUCKET;
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            seen += sum(base + b);
+            if (seen >= rank)
+            {
+                return Math.min(1L << b, maxNanos(probe));
+            }
+        }
+        return maxNanos(probe);
+    }
+
+    // --------- report ---------
+
+    /**
+     * Writes every probe's numbers to a text file next to the session journal.
+     *
+     * @return the file written, or null if that failed
+     */
+    File writeReport(long droppedStatsRecords)
+    {
+        if (!REPORT_DIR.exists() && !REPORT_DIR.mkdirs())
+        {
+            log.warn("unable to create report directory {}", REPORT_DIR);
+            return null;
+        }
+
+        String name = "perf-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".txt";
+        File file = new File(REPORT_DIR, name);
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name()))
+        {
+            out.printf("%-24s %10s %10s %10s %10s %10s %12s%n",
+                    "probe", "count", "mean us", "p50 us", "p99 us", "max us", "total ms");
+            for (SalvagePerfProbe probe : PROBES)
+            {
+                long count = count(probe);
+                out.printf("%-24s %10d %10.1f %10.1f %10.1f %10.1f %12.1f%n",
+                        probe,
+                        count,
+                        count > 0 ? totalNanos(probe) / 1000.0 / count : 0.0,
+                        percentileNanos(probe, 0.5) / 1000.0,
+                        percentileNanos(probe, 0.99) / 1000.0,
+                        maxNanos(probe) / 1000.0,
+                        totalNanos(probe) / 1e6);
+            }
+            out.printf("%nstats records dropped: %d%n", droppedStatsRecords);
+        }
+        catch (IOException ex)
+        {
+            log.warn("unable to write perf report", ex);
+            return null;
+        }
+        return file;
+    }
+
+    // --------- helpers ---------
+
+    private AtomicLongArray stripeOfThread()
+    {
+        if (client.isClientThread())
+        {
+            return stripes[CLIENT_STRIPE];
+        }
+        return stripes[SHARED_STRIPE + (int) (Thread.currentThread().getId() & 1)];
+    }
+
+    private long sum(int slot)
+    {
+        long sum = 0;
+        for (AtomicLongArray stripe : stripes)
+        {
+            sum += stripe.get(slot);
+        }
+        return sum;
+    }
+
+    private static int bucketOf(long nanos)
+    {
+        if (nanos <= 0)
+        {
+            return 0;
+        }
+        return Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+    }
+}
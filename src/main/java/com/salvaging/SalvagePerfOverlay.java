@@ -0,0 +1,179 @@
+package com.salvaging;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+
+import net.runelite.client.ui.overlay.LayoutableRenderableEntity;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Debug overlay with what each handler and overlay of the plugin has cost so far.
+ *
+ * The numbers change every frame (this overlay times itself), so they are only
+ * read again once a {@link #REFRESH_NANOS refresh}; every frame in between reuses
+ * the lines as they are.
+ */
+class SalvagePerfOverlay extends OverlayPanel
+{
+    private static final int WIDTH = 240;
+
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final SalvagePerfProbe[] PROBES = SalvagePerfProbe.values();
+
+    private final SalvageConfigCache configCache;
+    private final SalvagePerfCounters perf;
+    private final SalvageStatsWorker worker;
+
+    // built once; text is only rebuilt on a refresh
+    private final TitleComponent title = TitleComponent.builder()
+            .text("Salvaging perf")
+            .color(Color.WHITE)
+            .build();
+    private final LineComponent legendLine = LineComponent.builder()
+            .left("calls")
+            .leftColor(Color.GRAY)
+            .right("p50 / p99 / max us")
+            .rightColor(Color.GRAY)
+            .build();
+    private final LineComponent droppedLine = LineComponent.builder()
+            .left("Stats records dropped:")
+            .rightColor(Color.ORANGE)
+            .build();
+    private final ProbeLine[] probeLines = new ProbeLine[PROBES.length];
+
+    private long refreshedAt;
+    private boolean stale = true;
+    private long dropped;
+
+    @Inject
+    private SalvagePerfOverlay(SalvagingPlugin plugin, SalvageConfigCache configCache, SalvagePerfCounters perf,
+                               SalvageStatsWorker worker)
+    {
+        super(plugin);
+        this.configCache = configCache;
+        this.perf = perf;
+        this.worker = worker;
+        setPosition(OverlayPosition.TOP_RIGHT);
+        panelComponent.setPreferredSize(new Dimension(WIDTH, 0));
+
+        for (int i = 0; i < PROBES.length; i++)
+        {
+            probeLines[i] = new ProbeLine(PROBES[i]);
+        }
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        long start = perf.start();
+        Dimension size = renderPanel(graphics);
+        perf.stop(SalvagePerfProbe.PERF_OVERLAY, start);
+        return size;
+    }
+
+    private Dimension renderPanel(Graphics2D graphics)
+    {
+        List<LayoutableRenderableEntity> children = panelComponent.getChildren();
+        children.clear();
+
+        SalvageSettings settings = configCache.get();
+
+        if (!settings.isShowPerfOverlay())
+        {
+            // fresh numbers as soon as it is switched on
+            stale = true;
+            return null;
+        }
+
+        long now = System.nanoTime();
+        if (stale || now - refreshedAt >= REFRESH_NANOS)
+        {
+            refresh();
+            refreshedAt = now;
+            stale = false;
+        }
+
+        children.add(title);
+        children.add(legendLine);
+
+        for (ProbeLine line : probeLines)
+        {
+            if (line.count > 0)
+            {
+                children.add(line.line);
+            }
+        }
+
+        if (dropped > 0)
+        {
+            children.add(droppedLine);
+        }
+
+        return super.render(graphics);
+    }
+
+    private void refresh()
+    {
+        for (ProbeLine line : probeLines)
+        {
+            line.update(perf);
+        }
+
+        long d = worker.getDropped();
+        if (d != dropped)
+        {
+            dropped = d;
+            droppedLine.setRight(Long.toString(dropped));
+        }
+    }
+
+    /**
+     * One probe's line, rebuilt only when its numbers changed since the last refresh.
+     */
+    private static final class ProbeLine
+    {
+        private final SalvagePerfProbe probe;
+        private final LineComponent line = LineComponent.builder().build();
+        private final SalvageText.Key key = new SalvageText.Key();
+        private final SalvageText.Key countKey = new SalvageText.Key();
+        private long count;
+
+        ProbeLine(SalvagePerfProbe probe)
+        {
+            this.probe = probe;
+        }
+
+        void update(SalvagePerfCounters perf)
+        {
+            count = perf.count(probe);
+            if (count == 0)
+            {
+                return;
+            }
+
+            if (countKey.changed(count))
+            {
+                line.setLeft(probe + " " + count);
+            }
+
+            double p50 = perf.percentileNanos(probe, 0.5) / 1000.0;
+            double p99 = perf.percentileNanos(probe, 0.99) / 1000.0;
+            long max = perf.maxNanos(probe);
+            if (key.changed(SalvageText.tenths(p50), SalvageText.tenths(p99), max))
+            {
+                line.setRight(SalvageText.oneDecimal(p50) + " / " + SalvageText.oneDecimal(p99)
+                        + " / " + SalvageText.oneDecimal(max / 1000.0));
+                // anything near a frame is worth a look
+                line.setRightColor(max >= 4_000_000 ? Color.ORANGE : Color.WHITE);
+            }
+        }
+    }
+}
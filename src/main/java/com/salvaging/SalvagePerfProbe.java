@@ -0,0 +1,50 @@
+package com.salvaging;
+
+/**
+ * The places {@link SalvagePerfCounters} times: every event handler of the plugin,
+ * every overlay's render and the stats worker's batches.
+ */
+enum SalvagePerfProbe
+{
+    // event handlers, client thread
+    GAME_TICK("onGameTick"),
+    STAT_CHANGED("onStatChanged"),
+    ANIMATION_CHANGED("onAnimationChanged"),
+    OVERHEAD_TEXT_CHANGED("onOverheadTextChanged"),
+    CHAT_MESSAGE("onChatMessage"),
+    NPC_SPAWNED("onNpcSpawned"),
+    NPC_DESPAWNED("onNpcDespawned"),
+    GAME_OBJECT_SPAWNED("onGameObjectSpawned"),
+    GAME_OBJECT_DESPAWNED("onGameObjectDespawned"),
+    WIDGET_LOADED("onWidgetLoaded"),
+    WIDGET_CLOSED("onWidgetClosed"),
+    ITEM_CONTAINER_CHANGED("onItemContainerChanged"),
+    GAME_STATE_CHANGED("onGameStateChanged"),
+    CONFIG_CHANGED("onConfigChanged"),
+    COMMAND_EXECUTED("onCommandExecuted"),
+
+    // overlay renders, client thread
+    STATUS_OVERLAY("Status overlay"),
+    CARGO_OVERLAY("Cargo overlay"),
+    CREW_OVERLAY("Crew overlay"),
+    TIMING_OVERLAY("Timing overlay"),
+    YIELD_OVERLAY("Yield overlay"),
+    HUD_OVERLAY("HUD overlay"),
+    PERF_OVERLAY("Perf overlay"),
+
+    // stats worker thread
+    STATS_BATCH("Stats batch");
+
+    private final String label;
+
+    SalvagePerfProbe(String label)
+    {
+        this.label = label;
+    }
+
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
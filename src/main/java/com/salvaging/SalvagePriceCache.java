@@ -0,0 +1,104 @@
+package com.salvaging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.client.game.ItemManager;
+
+/**
+ * Grand Exchange prices of the items going into the hold, so the stats can value
+ * them without asking the {@link ItemManager} for every gain.
+ *
+ * Holds the most recently used {@link #CAPACITY} items. An item is looked up the
+ * first time it is seen; after that prices are refreshed together, at most once
+ * per {@link #REFRESH_CHECK_MILLIS}, for every entry older than
+ * {@link #MAX_AGE_MILLIS}. Client thread only, like the item manager itself.
+ */
+@Singleton
+class SalvagePriceCache
+{
+    static final int CAPACITY = 256;
+
+    static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    static final long REFRESH_CHECK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static class Price
+    {
+        int price;
+        long fetchedAt;
+    }
+
+    private final ItemManager itemManager;
+
+    // access order, so the eldest entry is the least recently used
+    private final Map<Integer, Price> prices = new LinkedHashMap<Integer, Price>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Price> eldest)
+        {
+            return size() > CAPACITY;
+        }
+    };
+
+    private long nextRefreshCheck = 0;
+
+    // not private: the headless harness stands in its own prices
+    @Inject
+    SalvagePriceCache(ItemManager itemManager)
+    {
+        this.itemManager = itemManager;
+    }
+
+    void clear()
+    {
+        prices.clear();
+        nextRefreshCheck = 0;
+    }
+
+    /**
+     * GE price of one of the item, 0 if it has none.
+     */
+    int price(int itemId)
+    {
+        Price entry = prices.get(itemId);
+        if (entry == null)
+        {
+            entry = new Price();
+            fetch(itemId, entry, System.currentTimeMillis());
+            prices.put(itemId, entry);
+        }
+        return entry.price;
+    }
+
+    /**
+     * Re-reads the prices that have gone stale, all in one pass. Call every tick;
+     * it only looks at the entries once per {@link #REFRESH_CHECK_MILLIS}.
+     */
+    void refreshIfDue()
+    {
+        long now = System.currentTimeMillis();
+        if (now < nextRefreshCheck)
+        {
+            return;
+        }
+        nextRefreshCheck = now + REFRESH_CHECK_MILLIS;
+
+        // iterating doesn't count as access, so this leaves the LRU order alone
+        for (Map.Entry<Integer, Price> e : prices.entrySet())
+        {
+            Price entry = e.getValue();
+            if (now - entry.fetchedAt >= MAX_AGE_MILLIS)
+            {
+                fetch(e.getKey(), entry, now);
+            }
+        }
+    }
+
+    private void fetch(int itemId, Price entry, long now)
+    {
+        entry.price = Math.max(0, itemManager.getItemPrice(itemId));
+        entry.fetchedAt = now;
+    }
+}
@@ -0,0 +1,30 @@
+package com.salvaging;
+
+import lombok.Getter;
+
+/**
+ * How far back the "recent" hook rates look.
+ */
+public enum SalvageRateWindow
+{
+    FIVE_MINUTES("5 min", 5),
+    FIFTEEN_MINUTES("15 min", 15),
+    SIXTY_MINUTES("60 min", 60);
+
+    private final String label;
+
+    @Getter
+    private final int minutes;
+
+    SalvageRateWindow(String label, int minutes)
+    {
+        this.label = label;
+        this.minutes = minutes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
@@ -0,0 +1,191 @@
+package com.salvaging;
+
+import java.awt.AlphaComposite;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * A panel drawn once into an image and blitted on every frame until what it was
+ * drawn from changes: a new snapshot, new settings, a resize or another overlay
+ * font. Nothing a panel shows changes faster than the snapshot, which is
+ * published at most once a tick. Moving the panel needs no redraw, the overlay
+ * renderer already translates the graphics to where it is.
+ *
+ * The image is kept in device pixels: with a scaled graphics (client UI scaling,
+ * stretched mode) the panel is painted into it at that scale and blitted back
+ * with the inverse, so it looks the same as painting it directly. Any other
+ * transform is painted directly every frame.
+ *
+ * One per overlay; render thread only.
+ */
+class SalvageRenderCache
+{
+    // some slack so a panel gaining a line or two doesn't need a new image
+    private static final int HEIGHT_SLACK = 32;
+
+    /**
+     * Draws the panel, with the graphics it is given, and returns its size or null
+     * if there is nothing to show.
+     */
+    interface Painter
+    {
+        Dimension paint(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings);
+    }
+
+    private final Painter painter;
+
+    private BufferedImage image;
+    // null if the panel had nothing to show
+    private Dimension size;
+
+    // what the image was drawn from
+    private boolean drawn = false;
+    private long drawnVersion;
+    private SalvageSettings drawnSettings;
+    private Dimension drawnPreferredSize;
+    private Font drawnFont;
+    private double drawnScaleX;
+    private double drawnScaleY;
+
+    SalvageRenderCache(Painter painter)
+    {
+        this.painter = painter;
+    }
+
+    Dimension render(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings, Dimension preferredSize)
+    {
+        if (!settings.isCachePanelImages())
+        {
+            clear();
+            return painter.paint(graphics, snapshot, settings);
+        }
+
+        AffineTransform transform = graphics.getTransform();
+        if (!isScaleOnly(transform))
+        {
+            clear();
+            return painter.paint(graphics, snapshot, settings);
+        }
+
+        double scaleX = transform.getScaleX();
+        double scaleY = transform.getScaleY();
+        Font font = graphics.getFont();
+        if (!drawn
+                || snapshot.getVersion() != drawnVersion
+                || settings != drawnSettings
+                || font != drawnFont
+                || scaleX != drawnScaleX
+                || scaleY != drawnScaleY
+                || (preferredSize == null ? drawnPreferredSize != null : !preferredSize.equals(drawnPreferredSize)))
+        {
+            draw(graphics, snapshot, settings, scaleX, scaleY);
+
+            drawn = true;
+            drawnVersion = snapshot.getVersion();
+            drawnSettings = settings;
+            drawnFont = font;
+            drawnScaleX = scaleX;
+            drawnScaleY = scaleY;
+            drawnPreferredSize = preferredSize == null ? null : new Dimension(preferredSize);
+        }
+
+        if (size == null)
+        {
+            return null;
+        }
+        if (scaleX == 1 && scaleY == 1)
+        {
+            graphics.drawImage(image, 0, 0, null);
+        }
+        else
+        {
+            // undo the scale so the image lands pixel for pixel, then put the transform back as it was
+            graphics.scale(1 / scaleX, 1 / scaleY);
+            graphics.drawImage(image, 0, 0, null);
+            graphics.setTransform(transform);
+        }
+        return size;
+    }
+
+    void clear()
+    {
+        if (image != null)
+        {
+            image.flush();
+            image = null;
+        }
+        size = null;
+        drawn = false;
+        drawnSettings = null;
+        drawnFont = null;
+        drawnPreferredSize = null;
+    }
+
+    /**
+     * True for a transform the image can be blitted under: translation and a positive scale.
+     */
+    private static boolean isScaleOnly(AffineTransform transform)
+    {
+        return transform.getShearX() == 0 && transform.getShearY() == 0
+                && transform.getScaleX() > 0 && transform.getScaleY() > 0;
+    }
+
+    private void draw(Graphics2D target, SalvageSnapshot snapshot, SalvageSettings settings, double scaleX, double scaleY)
+    {
+        // the panel's size is only known once it has been drawn, so a panel that
+        // outgrew the image is drawn a second time into a bigger one
+        size = paintImage(target, snapshot, settings, scaleX, scaleY);
+        if (size == null)
+        {
+            return;
+        }
+
+        int neededWidth = (int) Math.ceil(size.width * scaleX);
+        int neededHeight = (int) Math.ceil(size.height * scaleY);
+        if (image == null || neededWidth > image.getWidth() || neededHeight > image.getHeight())
+        {
+            int width = Math.max(neededWidth, image == null ? 1 : image.getWidth());
+            int height = Math.max((int) Math.ceil((size.height + HEIGHT_SLACK) * scaleY), image == null ? 1 : image.getHeight());
+            if (image != null)
+            {
+                image.flush();
+            }
+            image = target.getDeviceConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+            size = paintImage(target, snapshot, settings, scaleX, scaleY);
+        }
+    }
+
+    private Dimension paintImage(Graphics2D target, SalvageSnapshot snapshot, SalvageSettings settings,
+                                 double scaleX, double scaleY)
+    {
+        if (image == null)
+        {
+            // only measuring; a throwaway pixel to draw into
+            image = target.getDeviceConfiguration().createCompatibleImage(1, 1, Transparency.TRANSLUCENT);
+        }
+
+        Graphics2D graphics = image.createGraphics();
+        try
+        {
+            graphics.setComposite(AlphaComposite.Clear);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.setComposite(AlphaComposite.SrcOver);
+
+            // draw like the overlay renderer would have, at the scale it would have
+            graphics.scale(scaleX, scaleY);
+            graphics.setRenderingHints(target.getRenderingHints());
+            graphics.setFont(target.getFont());
+            graphics.setColor(target.getColor());
+
+            return painter.paint(graphics, snapshot, settings);
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.salvaging;
+
+import java.util.Arrays;
+
+/**
+ * Hook counts over the last 5, 15 and 60 minutes, for rates that follow what the
+ * crew is doing now rather than the whole session.
+ *
+ * Hooks are counted into {@link #BUCKET_TICKS}-tick buckets in a ring that covers
+ * the longest window, and every window keeps a running sum: a bucket is subtracted
+ * from a window's sum as it falls out of it. Adding a hook and reading a rate are
+ * both O(1) (plus one step per bucket boundary crossed), and memory is fixed however
+ * long the session runs.
+ */
+class SalvageRollingRate
+{
+    // 30 seconds per bucket
+    static final int BUCKET_TICKS = TickClock.secondsToTicks(30);
+
+    private static final SalvageRateWindow[] WINDOWS = SalvageRateWindow.values();
+    private static final int[] WINDOW_BUCKETS = new int[WINDOWS.length];
+    private static final int RING_SIZE;
+
+    static
+    {
+        int longest = 0;
+        for (SalvageRateWindow w : WINDOWS)
+        {
+            WINDOW_BUCKETS[w.ordinal()] = TickClock.secondsToTicks(w.getMinutes() * 60) / BUCKET_TICKS;
+            longest = Math.max(longest, WINDOW_BUCKETS[w.ordinal()]);
+        }
+        RING_SIZE = longest;
+    }
+
+    private final int[] buckets = new int[RING_SIZE];
+    private final int[] windowSums = new int[WINDOWS.length];
+
+    // absolute bucket number (tick / BUCKET_TICKS) of the newest bucket
+    private long currentBucket = -1;
+    private long firstTick = TickClock.NEVER;
+    private int total = 0;
+
+    void clear()
+    {
+        Arrays.fill(buckets, 0);
+        Arrays.fill(windowSums, 0);
+        currentBucket = -1;
+        firstTick = TickClock.NEVER;
+        total = 0;
+    }
+
+    void add(long tick)
+    {
+        advanceTo(tick);
+        buckets[(int) (currentBucket % RING_SIZE)]++;
+        for (int w = 0; w < windowSums.length; w++)
+        {
+            windowSums[w]++;
+        }
+
+        if (firstTick == TickClock.NEVER)
+        {
+            firstTick = tick;
+        }
+        total++;
+    }
+
+    /**
+     * Hooks per hour over the given window, as of {@code now}. Until the window has
+     * been filled, the rate is over the time since the first hook instead.
+     */
+    double ratePerHour(SalvageRateWindow window, long now)
+    {
+        advanceTo(now);
+
+        // same rule as the lifetime rate: one hook is not a rate yet
+        if (total <= 1)
+        {
+            return 0;
+        }
+
+        int windowBuckets = WINDOW_BUCKETS[window.ordinal()];
+        long span = (long) (windowBuckets - 1) * BUCKET_TICKS + now % BUCKET_TICKS + 1;
+        span = Math.min(span, now - firstTick);
+        if (span <= 0)
+        {
+            return 0;
+        }
+        return windowSums[window.ordinal()] / TickClock.ticksToHours(span);
+    }
+
+    /**
+     * Rotates the ring up to the bucket of the given tick, dropping whatever
+     * falls out of each window on the way.
+     */
+    private void advanceTo(long tick)
+    {
+        long target = tick / BUCKET_TICKS;
+        if (currentBucket < 0)
+        {
+            currentBucket = target;
+            return;
+        }
+
+        long steps = Math.min(target - currentBucket, RING_SIZE);
+        for (long s = 0; s < steps; s++)
+        {
+            currentBucket++;
+            for (int w = 0; w < windowSums.length; w++)
+            {
+                windowSums[w] -= buckets[(int) Math.floorMod(currentBucket - WINDOW_BUCKETS[w], (long) RING_SIZE)];
+            }
+            buckets[(int) (currentBucket % RING_SIZE)] = 0;
+        }
+
+        // longer gaps than the ring leave everything empty already
+        if (target > currentBucket)
+        {
+            currentBucket = target;
+        }
+    }
+}
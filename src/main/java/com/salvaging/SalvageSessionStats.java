@@ -0,0 +1,721 @@
+package com.salvaging;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.Getter;
+import net.runelite.client.Notifier;
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * The session statistics and everything built from them: crew counts and rates,
+ * interval percentiles, the cargo prediction, the session journal, the per-minute
+ * history and the overlay snapshot.
+ *
+ * The plugin's handlers only classify events on the client thread and hand the
+ * results over as records (see {@link SalvageStatsWorker}); all of this runs on
+ * the stats worker, one record at a time. The only things other threads read are
+ * the published {@link #getSnapshot() snapshot} and {@link #getHistory() history}.
+ */
+@Singleton
+class SalvageSessionStats
+{
+    // record types
+    static final byte TICK = 1;          // a = flags, b = player activity, c = tracked crew, d = active crew
+    static final byte HOOK = 2;          // a = crew id
+    static final byte CRYSTAL = 3;       // (no fields)
+    static final byte HAUL_CYCLE = 4;    // a = ticks since the previous haul started
+    static final byte CARGO = 5;         // a = used, b = max, c = capacity read from the hold, d = flags
+    static final byte REFRESH = 6;       // (no fields) rebuild the snapshot, e.g. after a config change
+    static final byte ITEM_YIELD = 7;    // a = item id, b = quantity, c = source (crew id, or -1 the player), d = GE price each
+    static final byte FACILITY = 8;      // a = registry slot (-1 all), b = kind ordinal (-1 gone), c = uses, d = ticks since last use (-1 never)
+    static final byte YIELD_PENDING = 9; // a = hooks whose salvage the hold hasn't shown yet
+
+    // TICK flags
+    static final int ON_BOAT = 1;
+    static final int STATUS_KNOWN = 1 << 1;
+
+    // CARGO flags
+    static final int CARGO_FULL = 1;
+    static final int CARGO_REALLY_FULL = 1 << 1;
+
+    // a hook used within this long counts as in use
+    private static final int HOOK_ACTIVE_TICKS = TickClock.secondsToTicks(60);
+
+    private static final SalvageFacilityKind[] FACILITY_KINDS = SalvageFacilityKind.values();
+
+    private static final SalvageAnimation[] ACTIVITIES = SalvageAnimation.values();
+
+    private final SalvageConfigCache configCache;
+    private final SalvageJournal journal;
+    private final Notifier notifier;
+    private final ClientThread clientThread;
+
+    // tick of the newest record
+    private long now = 0;
+
+    // --------- live state, as of the last tick ---------
+    private boolean onBoat;
+    private boolean statusKnown;
+    private SalvageAnimation playerActivity = SalvageAnimation.IDLE;
+    private int trackedCrew;
+    private int activeCrew;
+
+    private int cargoUsed;
+    private int cargoMax;
+    private int cargoCapacity;
+    private boolean cargoFull;
+    private boolean cargoReallyFull;
+
+    // --------- session stats ---------
+
+    private static class CrewStats
+    {
+        long firstTick = TickClock.NEVER;
+        long lastTick = TickClock.NEVER;
+        final SalvageRollingRate recent = new SalvageRollingRate();
+        final SalvageIntervalHistogram intervals = new SalvageIntervalHistogram();
+
+        void clear()
+        {
+            firstTick = TickClock.NEVER;
+            lastTick = TickClock.NEVER;
+            recent.clear();
+            intervals.clear();
+        }
+    }
+
+    // by crew id; the counts and their order live in the leaderboard
+    private final CrewStats[] crewStats = new CrewStats[SalvageCrewRoster.CREW_NAMES.size()];
+    private final SalvageCrewLeaderboard leaderboard = new SalvageCrewLeaderboard();
+
+    private int crewTotalSalvages = 0;
+    private double crewAvgIntervalSeconds = 0.0;
+    private long lastCrewSalvageTick = TickClock.NEVER;
+    private final SalvageRollingRate crewRecent = new SalvageRollingRate();
+    private final SalvageIntervalHistogram crewIntervals = new SalvageIntervalHistogram();
+
+    // player hauling cycles, start to start; not part of the journalled session
+    private final SalvageIntervalHistogram haulCycles = new SalvageIntervalHistogram();
+
+    private long lastCrystalHarvestTick = TickClock.NEVER;
+
+    private final SalvageYieldTable yields = new SalvageYieldTable();
+    private int pendingYieldHooks = 0;
+
+    private final SalvageHistory history = new SalvageHistory();
+
+    // boat facilities by registry slot, as the client thread last posted them
+    private final int[] facilityKinds = new int[SalvageFacilityRegistry.CAPACITY];
+    private final int[] facilityUses = new int[SalvageFacilityRegistry.CAPACITY];
+    private final long[] facilityLastUseTicks = new long[SalvageFacilityRegistry.CAPACITY];
+    private int facilityState = 0;
+
+    private final SalvageCargoPredictor cargoPredictor = new SalvageCargoPredictor();
+
+    // set once the "almost full" notification went out, until the hold empties again
+    private boolean cargoWarningSent = false;
+
+    // cargo numbers as last written to (or restored from) the journal
+    @Getter
+    private int journalCargoUsed = 0;
+
+    @Getter
+    private int journalCargoCapacity = 0;
+
+    @Getter
+    private boolean journalCargoFull = false;
+
+    // --------- overlay snapshot ---------
+
+    // Published at most once per tick; overlays only ever read this reference
+    @Getter
+    private volatile SalvageSnapshot snapshot = SalvageSnapshot.EMPTY;
+
+    private boolean stateChanged = true;
+
+    // never reset, so a version is never handed out twice
+    private long snapshotVersion = 0;
+
+    /**
+     * The per-minute history, published once a minute; for the side panel, from any thread.
+     */
+    SalvageHistorySnapshot getHistory()
+    {
+        return history.getSnapshot();
+    }
+
+    @Inject
+    private SalvageSessionStats(SalvageConfigCache configCache, SalvageJournal journal, Notifier notifier, ClientThread clientThread)
+    {
+        this.configCache = configCache;
+        this.journal = journal;
+        this.notifier = notifier;
+        this.clientThread = clientThread;
+
+        for (int i = 0; i < crewStats.length; i++)
+        {
+            crewStats[i] = new CrewStats();
+        }
+        clearFacilities();
+    }
+
+    /**
+     * Forgets everything. Only call while the worker is stopped.
+     */
+    void reset()
+    {
+        now = 0;
+        onBoat = false;
+        statusKnown = false;
+        playerActivity = SalvageAnimation.IDLE;
+        trackedCrew = 0;
+        activeCrew = 0;
+
+        cargoUsed = 0;
+        cargoMax = 0;
+        cargoCapacity = 0;
+        cargoFull = false;
+        cargoReallyFull = false;
+        cargoPredictor.clear();
+        cargoWarningSent = false;
+        journalCargoUsed = 0;
+        journalCargoCapacity = 0;
+        journalCargoFull = false;
+
+        for (CrewStats cs : crewStats)
+        {
+            cs.clear();
+        }
+        leaderboard.clear();
+        crewTotalSalvages = 0;
+        crewAvgIntervalSeconds = 0.0;
+        lastCrewSalvageTick = TickClock.NEVER;
+        crewRecent.clear();
+        crewIntervals.clear();
+        haulCycles.clear();
+
+        lastCrystalHarvestTick = TickClock.NEVER;
+        yields.clear();
+        pendingYieldHooks = 0;
+        clearFacilities();
+        history.clear();
+
+        snapshot = SalvageSnapshot.EMPTY;
+        stateChanged = true;
+    }
+
+    // --------- records ---------
+
+    /**
+     * Applies one record from the client thread.
+     */
+    void apply(byte type, long tick, int a, int b, int c, int d)
+    {
+        now = Math.max(now, tick);
+
+        switch (type)
+        {
+            case TICK:
+                onTick(a, ACTIVITIES[b], c, d);
+                break;
+            case HOOK:
+                countCrewHook(a, tick);
+                journal.append(tick, SalvageJournal.HOOK, a, 0);
+                stateChanged = true;
+                break;
+            case CRYSTAL:
+                lastCrystalHarvestTick = tick;
+                journal.append(tick, SalvageJournal.CRYSTAL, 0, 0);
+                break;
+            case HAUL_CYCLE:
+                haulCycles.record(a);
+                stateChanged = true;
+                break;
+            case CARGO:
+                cargoUsed = a;
+                cargoMax = b;
+                cargoCapacity = c;
+                cargoFull = (d & CARGO_FULL) != 0;
+                cargoReallyFull = (d & CARGO_REALLY_FULL) != 0;
+                history.cargo(tick, a, b);
+                journalCargoIfChanged();
+                stateChanged = true;
+                break;
+            case ITEM_YIELD:
+                if (SalvageYieldTable.isSource(c) && b > 0)
+                {
+                    long value = (long) b * Math.max(0, d);
+                    yields.add(c, a, b, tick);
+                    yields.addValue(c, value);
+                    journalYield(tick, c, a, b, value);
+                    stateChanged = true;
+                }
+                break;
+            case YIELD_PENDING:
+                if (a != pendingYieldHooks)
+                {
+                    pendingYieldHooks = a;
+                    stateChanged = true;
+                }
+                break;
+            case FACILITY:
+                if (a < 0)
+                {
+                    clearFacilities();
+                }
+                else if (a < facilityKinds.length)
+                {
+                    facilityKinds[a] = b;
+                    facilityUses[a] = c;
+                    facilityLastUseTicks[a] = d < 0 ? TickClock.NEVER : tick - d;
+                }
+                stateChanged = true;
+                break;
+            case REFRESH:
+                stateChanged = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onTick(int flags, SalvageAnimation activity, int tracked, int active)
+    {
+        boolean boat = (flags & ON_BOAT) != 0;
+        boolean known = (flags & STATUS_KNOWN) != 0;
+        if (boat != onBoat || known != statusKnown || activity != playerActivity
+                || tracked != trackedCrew || active != activeCrew)
+        {
+            onBoat = boat;
+            statusKnown = known;
+            playerActivity = activity;
+            trackedCrew = tracked;
+            activeCrew = active;
+            stateChanged = true;
+        }
+
+        cargoPredictor.update(cargoUsed);
+        warnIfCargoAlmostFull();
+        history.advanceTo(now);
+
+        journal.touch(now);
+        publishSnapshotIfChanged();
+    }
+
+    private void countCrewHook(int crewId, long tick)
+    {
+        CrewStats cs = crewStats[crewId];
+
+        leaderboard.add(crewId);
+        history.hook(tick, crewId);
+        if (cs.firstTick == TickClock.NEVER)
+        {
+            cs.firstTick = tick;
+        }
+        if (cs.lastTick != TickClock.NEVER)
+        {
+            cs.intervals.record(tick - cs.lastTick);
+        }
+        cs.lastTick = tick;
+        cs.recent.add(tick);
+
+        crewTotalSalvages++;
+        crewRecent.add(tick);
+
+        if (lastCrewSalvageTick != TickClock.NEVER)
+        {
+            crewIntervals.record(tick - lastCrewSalvageTick);
+            double delta = TickClock.ticksToSeconds(tick - lastCrewSalvageTick);
+
+            if (crewAvgIntervalSeconds <= 0.0)
+            {
+                crewAvgIntervalSeconds = delta;
+            }
+            else
+            {
+                crewAvgIntervalSeconds =
+                        (crewAvgIntervalSeconds * (crewTotalSalvages - 1) + delta) / crewTotalSalvages;
+            }
+        }
+
+        lastCrewSalvageTick = tick;
+    }
+
+    // --------- session journal ---------
+
+    /**
+     * Applies one journal record; used when restoring a session, before the worker runs.
+     */
+    void restoreRecord(long tick, int type, int crewId, int value)
+    {
+        switch (type)
+        {
+            case SalvageJournal.HOOK:
+                if (crewId >= 0 && crewId < SalvageCrewRoster.CREW_NAMES.size())
+                {
+                    countCrewHook(crewId, tick);
+                }
+                break;
+            case SalvageJournal.CRYSTAL:
+                lastCrystalHarvestTick = tick;
+                break;
+            case SalvageJournal.CARGO_USED:
+                journalCargoUsed = value;
+                history.cargo(tick, journalCargoUsed, journalCargoCapacity);
+                break;
+            case SalvageJournal.CARGO_CAPACITY:
+                journalCargoCapacity = value;
+                history.cargo(tick, journalCargoUsed, journalCargoCapacity);
+                break;
+            case SalvageJournal.CARGO_FULL:
+                journalCargoFull = value != 0;
+                break;
+            case SalvageJournal.ITEM_YIELD:
+                if (SalvageYieldTable.isSource(crewId) && (value >>> 16) > 0)
+                {
+                    yields.add(crewId, value & 0xFFFF, value >>> 16, tick);
+                }
+                break;
+            case SalvageJournal.ITEM_VALUE:
+                if (SalvageYieldTable.isSource(crewId))
+                {
+                    yields.addValue(crewId, value);
+                }
+                break;
+            default:
+                break;
+        }
+        now = Math.max(now, tick);
+    }
+
+    void finishRestore(long lastTick)
+    {
+        now = Math.max(now, lastTick);
+        history.advanceTo(now);
+        stateChanged = true;
+    }
+
+    private void journalCargoIfChanged()
+    {
+        if (cargoUsed != journalCargoUsed)
+        {
+            journalCargoUsed = cargoUsed;
+            journal.append(now, SalvageJournal.CARGO_USED, 0, journalCargoUsed);
+        }
+        if (cargoCapacity != journalCargoCapacity)
+        {
+            journalCargoCapacity = cargoCapacity;
+            journal.append(now, SalvageJournal.CARGO_CAPACITY, 0, journalCargoCapacity);
+        }
+        if (cargoFull != journalCargoFull)
+        {
+            journalCargoFull = cargoFull;
+            journal.append(now, SalvageJournal.CARGO_FULL, 0, journalCargoFull ? 1 : 0);
+        }
+    }
+
+    /**
+     * Item id and quantity share the record's value, 16 bits each; bigger
+     * quantities take several records, item ids beyond 16 bits aren't kept.
+     * The value follows in a record of its own, so restoring needs no prices.
+     */
+    private void journalYield(long tick, int source, int itemId, int quantity, long value)
+    {
+        if (itemId <= 0xFFFF)
+        {
+            while (quantity > 0)
+            {
+                int part = Math.min(quantity, 0xFFFF);
+                journal.append(tick, SalvageJournal.ITEM_YIELD, source, part << 16 | itemId);
+                quantity -= part;
+            }
+        }
+
+        while (value > 0)
+        {
+            int part = (int) Math.min(value, Integer.MAX_VALUE);
+            journal.append(tick, SalvageJournal.ITEM_VALUE, source, part);
+            value -= part;
+        }
+    }
+
+    // --------- cargo warning ---------
+
+    /**
+     * Notifies once when the hold is predicted to fill within the configured lead
+     * time; re-arms once the prediction is comfortably past it again (hold emptied).
+     */
+    private void warnIfCargoAlmostFull()
+    {
+        int lead = configCache.get().getCargoFullWarningSeconds();
+        if (lead <= 0 || !onBoat)
+        {
+            return;
+        }
+
+        int secondsToFull = getCargoSecondsToFull();
+        if (cargoWarningSent)
+        {
+            if (secondsToFull < 0 || secondsToFull > 2 * lead)
+            {
+                cargoWarningSent = false;
+            }
+            return;
+        }
+
+        // already full is the crew's own message, not a prediction
+        if (secondsToFull > 0 && secondsToFull <= lead)
+        {
+            String message = "Your cargo hold will be full in about " + secondsToFull + " seconds.";
+            clientThread.invokeLater(() -> notifier.notify(message));
+            cargoWarningSent = true;
+        }
+    }
+
+    // --------- snapshot ---------
+
+    /**
+     * Rebuilds the overlay snapshot if anything it shows has changed since the
+     * last one. Called once at the end of every tick record.
+     */
+    private void publishSnapshotIfChanged()
+    {
+        int sinceLast = getCrewSecondsSinceLastSalvage();
+        int crystalRemaining = getCrystalCooldownSecondsRemaining();
+        int secondsToFull = getCargoSecondsToFull();
+        int facilities = getFacilityState();
+
+        SalvageSnapshot current = snapshot;
+        if (!stateChanged
+                && current.getSecondsSinceLastSalvage() == sinceLast
+                && current.getCrystalCooldownRemaining() == crystalRemaining
+                && current.getCargoSecondsToFull() == secondsToFull
+                && facilityState == facilities)
+        {
+            return;
+        }
+        facilityState = facilities;
+
+        SalvageRateWindow window = configCache.get().getRateWindow();
+
+        // already in order, most hooks first
+        ImmutableList.Builder<SalvageSnapshot.CrewRow> rows = ImmutableList.builder();
+        for (int rank = 0; rank < leaderboard.size(); rank++)
+        {
+            int crewId = leaderboard.crewIdAt(rank);
+            CrewStats cs = crewStats[crewId];
+            int count = leaderboard.count(crewId);
+            rows.add(new SalvageSnapshot.CrewRow(SalvageCrewRoster.nameOf(crewId), count,
+                    getCrewRatePerHour(count, cs), cs.recent.ratePerHour(window, now), percentilesOf(cs.intervals)));
+        }
+
+        snapshot = new SalvageSnapshot(
+                ++snapshotVersion, onBoat, statusKnown, playerActivity,
+                cargoUsed, cargoMax, cargoReallyFull, secondsToFull,
+                trackedCrew, activeCrew, rows.build(), window,
+                crewTotalSalvages, getCrewAverageIntervalSeconds(), crewRecent.ratePerHour(window, now),
+                percentilesOf(crewIntervals), percentilesOf(haulCycles), sinceLast, crystalRemaining,
+                itemYieldRows(), sourceYieldRows(), yields.totalValue(), yields.valuePerHour(now),
+                pendingYieldHooks, facilityRows()
+        );
+        stateChanged = false;
+    }
+
+    private List<SalvageSnapshot.ItemYield> itemYieldRows()
+    {
+        if (yields.isEmpty())
+        {
+            return ImmutableList.of();
+        }
+
+        List<SalvageSnapshot.ItemYield> rows = new ArrayList<>();
+        yields.forEachItem((itemId, quantity) ->
+                rows.add(new SalvageSnapshot.ItemYield(itemId, quantity, yields.perHour(quantity, now))));
+        rows.sort(Comparator.comparingInt(SalvageSnapshot.ItemYield::getQuantity).reversed());
+        return ImmutableList.copyOf(rows);
+    }
+
+    private List<SalvageSnapshot.SourceYield> sourceYieldRows()
+    {
+        if (yields.isEmpty())
+        {
+            return ImmutableList.of();
+        }
+
+        List<SalvageSnapshot.SourceYield> rows = new ArrayList<>();
+        for (int source = SalvageYieldTable.PLAYER; SalvageYieldTable.isSource(source); source++)
+        {
+            int items = yields.sourceTotal(source);
+            if (items > 0)
+            {
+                rows.add(new SalvageSnapshot.SourceYield(SalvageYieldTable.nameOf(source), items,
+                        yields.sourcePerHour(source, now), yields.sourceValue(source)));
+            }
+        }
+        rows.sort(Comparator.comparingInt(SalvageSnapshot.SourceYield::getItems).reversed());
+        return ImmutableList.copyOf(rows);
+    }
+
+    private List<SalvageSnapshot.FacilityRow> facilityRows()
+    {
+        ImmutableList.Builder<SalvageSnapshot.FacilityRow> rows = ImmutableList.builder();
+        for (SalvageFacilityKind kind : FACILITY_KINDS)
+        {
+            int number = 0;
+            for (int slot = 0; slot < facilityKinds.length; slot++)
+            {
+                if (facilityKinds[slot] == kind.ordinal())
+                {
+                    rows.add(new SalvageSnapshot.FacilityRow(kind, ++number, facilityUses[slot],
+                            getFacilityCooldownRemaining(kind, slot), isFacilityActive(slot)));
+                }
+            }
+        }
+        return rows.build();
+    }
+
+    private static SalvageSnapshot.Percentiles percentilesOf(SalvageIntervalHistogram h)
+    {
+        if (h.count() == 0)
+        {
+            return SalvageSnapshot.Percentiles.NONE;
+        }
+
+        return new SalvageSnapshot.Percentiles(
+                h.count(),
+                TickClock.ticksToSeconds(Math.round(h.percentileTicks(0.50))),
+                TickClock.ticksToSeconds(Math.round(h.percentileTicks(0.90))),
+                TickClock.ticksToSeconds(Math.round(h.percentileTicks(0.99))),
+                TickClock.ticksToSeconds(h.maxTicks())
+        );
+    }
+
+    // --------- derived values ---------
+
+    /**
+     * Predicted seconds until the hold is full, 0 if it is, -1 if unknown.
+     */
+    private int getCargoSecondsToFull()
+    {
+        if (cargoReallyFull)
+        {
+            return 0;
+        }
+
+        long ticks = cargoPredictor.ticksToFull(cargoUsed, cargoMax);
+        return ticks < 0 ? -1 : TickClock.ticksToSecondsCeil(ticks);
+    }
+
+    private double getCrewRatePerHour(int count, CrewStats cs)
+    {
+        if (count <= 1 || cs.firstTick == TickClock.NEVER)
+        {
+            return 0;
+        }
+
+        double hours = TickClock.ticksToHours(now - cs.firstTick);
+        if (hours <= 0)
+        {
+            return 0;
+        }
+        return count / hours;
+    }
+
+    private double getCrewAverageIntervalSeconds()
+    {
+        return crewAvgIntervalSeconds > 0.0 ? crewAvgIntervalSeconds : 0.0;
+    }
+
+    private int getCrewSecondsSinceLastSalvage()
+    {
+        if (lastCrewSalvageTick == TickClock.NEVER)
+        {
+            return -1;
+        }
+        return (int) TickClock.ticksToSeconds(now - lastCrewSalvageTick);
+    }
+
+    /**
+     * Returns remaining crystal cooldown in seconds:
+     * -1 if we never saw the message yet,
+     *  0 if it's ready,
+     * >0 while on cooldown.
+     */
+    private int getCrystalCooldownSecondsRemaining()
+    {
+        if (lastCrystalHarvestTick == TickClock.NEVER)
+        {
+            return -1;
+        }
+
+        long remaining = SalvageFacilityKind.CRYSTAL_EXTRACTOR.getCooldownTicks() - (now - lastCrystalHarvestTick);
+        if (remaining <= 0)
+        {
+            return 0;
+        }
+
+        return TickClock.ticksToSecondsCeil(remaining);
+    }
+
+    // --------- facilities ---------
+
+    private void clearFacilities()
+    {
+        for (int slot = 0; slot < facilityKinds.length; slot++)
+        {
+            facilityKinds[slot] = -1;
+        }
+    }
+
+    /**
+     * Seconds until the facility can be used again, 0 if it can; -1 if its kind has no cooldown.
+     */
+    private int getFacilityCooldownRemaining(SalvageFacilityKind kind, int slot)
+    {
+        if (kind.getCooldownTicks() == 0)
+        {
+            return -1;
+        }
+        if (facilityLastUseTicks[slot] == TickClock.NEVER)
+        {
+            return 0;
+        }
+
+        long remaining = kind.getCooldownTicks() - (now - facilityLastUseTicks[slot]);
+        return remaining <= 0 ? 0 : TickClock.ticksToSecondsCeil(remaining);
+    }
+
+    private boolean isFacilityActive(int slot)
+    {
+        return facilityLastUseTicks[slot] != TickClock.NEVER && now - facilityLastUseTicks[slot] < HOOK_ACTIVE_TICKS;
+    }
+
+    /**
+     * Everything about the facilities that changes with time alone, in one number.
+     * Between two FACILITY records cooldowns only count down and facilities only go
+     * inactive, so any change here changes the sum.
+     */
+    private int getFacilityState()
+    {
+        int state = 0;
+        for (int slot = 0; slot < facilityKinds.length; slot++)
+        {
+            if (facilityKinds[slot] < 0)
+            {
+                continue;
+            }
+
+            SalvageFacilityKind kind = FACILITY_KINDS[facilityKinds[slot]];
+            state += Math.max(0, getFacilityCooldownRemaining(kind, slot));
+            if (isFacilityActive(slot))
+            {
+                state += 1 << 16;
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,86 @@
+package com.salvaging;
+
+import java.awt.Color;
+import lombok.Getter;
+
+/**
+ * Immutable copy of the plugin's config, read once whenever it changes, so hot
+ * paths read plain fields instead of going through the config proxy every time.
+ * See {@link SalvageConfigCache}.
+ */
+class SalvageSettings
+{
+    // overlays
+    @Getter
+    private final boolean showStatusOverlay;
+
+    @Getter
+    private final boolean showCargoOverlay;
+
+    @Getter
+    private final boolean showCrewPanel;
+
+    @Getter
+    private final boolean showTimingPanel;
+
+    @Getter
+    private final SalvageRateWindow rateWindow;
+
+    @Getter
+    private final boolean showYieldPanel;
+
+    @Getter
+    private final boolean hudMode;
+
+    @Getter
+    private final boolean cachePanelImages;
+
+    @Getter
+    private final boolean showSidePanel;
+
+    // cargo
+    @Getter
+    private final boolean highlightCargoWhenFull;
+
+    @Getter
+    private final Color cargoFullColor;
+
+    @Getter
+    private final int cargoCapacityOverride;
+
+    @Getter
+    private final int cargoFullWarningSeconds;
+
+    // notifications
+    @Getter
+    private final boolean notifyCrystalReady;
+
+    // debug
+    @Getter
+    private final boolean recordEventTrace;
+
+    @Getter
+    private final boolean showPerfOverlay;
+
+    SalvageSettings(SalvagingConfig config)
+    {
+        showStatusOverlay = config.showStatusOverlay();
+        showCargoOverlay = config.showCargoOverlay();
+        showCrewPanel = config.showCrewPanel();
+        showTimingPanel = config.showTimingPanel();
+        rateWindow = config.rateWindow();
+        showYieldPanel = config.showYieldPanel();
+        hudMode = config.hudMode();
+        cachePanelImages = config.cachePanelImages();
+        showSidePanel = config.showSidePanel();
+
+        highlightCargoWhenFull = config.highlightCargoWhenFull();
+        cargoFullColor = config.cargoFullColor();
+        cargoCapacityOverride = config.cargoCapacityOverride();
+        cargoFullWarningSeconds = config.cargoFullWarningSeconds();
+        notifyCrystalReady = config.notifyCrystalReady();
+
+        recordEventTrace = config.recordEventTrace();
+        showPerfOverlay = config.showPerfOverlay();
+    }
+}
@@ -0,0 +1,289 @@
+package com.salvaging;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Immutable view of the plugin state, built at most once per game tick and
+ * read by every overlay. Overlays never touch live plugin state.
+ */
+class SalvageSnapshot
+{
+    static final SalvageSnapshot EMPTY = new SalvageSnapshot(
+            0, false, false, SalvageAnimation.IDLE,
+            0, 0, false, -1,
+            0, 0, ImmutableList.of(), SalvageRateWindow.FIFTEEN_MINUTES,
+            0, 0.0, 0.0, Percentiles.NONE, Percentiles.NONE, -1, -1,
+            ImmutableList.of(), ImmutableList.of(), 0, 0.0, 0, ImmutableList.of()
+    );
+
+    /**
+     * Interval percentiles in seconds; {@code count} is 0 when nothing was measured yet.
+     */
+    static class Percentiles
+    {
+        static final Percentiles NONE = new Percentiles(0, 0, 0, 0, 0);
+
+        @Getter
+        private final int count;
+
+        @Getter
+        private final double p50;
+
+        @Getter
+        private final double p90;
+
+        @Getter
+        private final double p99;
+
+        @Getter
+        private final double max;
+
+        Percentiles(int count, double p50, double p90, double p99, double max)
+        {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+    }
+
+    static class CrewRow
+    {
+        @Getter
+        private final String name;
+
+        @Getter
+        private final int count;
+
+        // whole session
+        @Getter
+        private final double ratePerHour;
+
+        // over the snapshot's rate window
+        @Getter
+        private final double recentRatePerHour;
+
+        // time between this crewmate's hooks
+        @Getter
+        private final Percentiles intervals;
+
+        CrewRow(String name, int count, double ratePerHour, double recentRatePerHour, Percentiles intervals)
+        {
+            this.name = name;
+            this.count = count;
+            this.ratePerHour = ratePerHour;
+            this.recentRatePerHour = recentRatePerHour;
+            this.intervals = intervals;
+        }
+    }
+
+    /**
+     * One item that went into the hold this session, all sources together.
+     */
+    static class ItemYield
+    {
+        @Getter
+        private final int itemId;
+
+        @Getter
+        private final int quantity;
+
+        @Getter
+        private final double perHour;
+
+        ItemYield(int itemId, int quantity, double perHour)
+        {
+            this.itemId = itemId;
+            this.quantity = quantity;
+            this.perHour = perHour;
+        }
+    }
+
+    /**
+     * Everything one source (the player or a crewmate) brought in this session.
+     */
+    static class SourceYield
+    {
+        @Getter
+        private final String name;
+
+        @Getter
+        private final int items;
+
+        @Getter
+        private final double perHour;
+
+        // GE value when it came in
+        @Getter
+        private final long value;
+
+        SourceYield(String name, int items, double perHour, long value)
+        {
+            this.name = name;
+            this.items = items;
+            this.perHour = perHour;
+            this.value = value;
+        }
+    }
+
+    /**
+     * One facility on the boat.
+     */
+    static class FacilityRow
+    {
+        @Getter
+        private final SalvageFacilityKind kind;
+
+        // 1-based among the boat's facilities of the same kind
+        @Getter
+        private final int number;
+
+        @Getter
+        private final int uses;
+
+        // for kinds with a cooldown: 0 if ready, seconds left otherwise; -1 for the rest
+        @Getter
+        private final int cooldownRemaining;
+
+        // used recently
+        @Getter
+        private final boolean active;
+
+        FacilityRow(SalvageFacilityKind kind, int number, int uses, int cooldownRemaining, boolean active)
+        {
+            this.kind = kind;
+            this.number = number;
+            this.uses = uses;
+            this.cooldownRemaining = cooldownRemaining;
+            this.active = active;
+        }
+    }
+
+    // bumped for every snapshot published, so readers can tell nothing changed
+    @Getter
+    private final long version;
+
+    // player status
+    @Getter
+    private final boolean onBoat;
+
+    @Getter
+    private final boolean statusKnown;
+
+    @Getter
+    private final SalvageAnimation playerActivity;
+
+    // cargo
+    @Getter
+    private final int cargoUsed;
+
+    @Getter
+    private final int cargoMax;
+
+    @Getter
+    private final boolean cargoFull;
+
+    // predicted; -1 when it can't be told
+    @Getter
+    private final int cargoSecondsToFull;
+
+    // crew
+    @Getter
+    private final int trackedCrew;
+
+    @Getter
+    private final int activeCrew;
+
+    // sorted by hook count, highest first
+    @Getter
+    private final List<CrewRow> crewRows;
+
+    @Getter
+    private final SalvageRateWindow rateWindow;
+
+    // timing
+    @Getter
+    private final int totalSalvages;
+
+    @Getter
+    private final double avgIntervalSeconds;
+
+    // all crew together, over the rate window
+    @Getter
+    private final double recentRatePerHour;
+
+    // time between hooks of any crewmate
+    @Getter
+    private final Percentiles hookIntervals;
+
+    // time from one haul of the player to the next
+    @Getter
+    private final Percentiles haulCycles;
+
+    @Getter
+    private final int secondsSinceLastSalvage;
+
+    @Getter
+    private final int crystalCooldownRemaining;
+
+    // yield, both sorted by quantity, highest first
+    @Getter
+    private final List<ItemYield> itemYields;
+
+    @Getter
+    private final List<SourceYield> sourceYields;
+
+    // GE value of everything that went into the hold
+    @Getter
+    private final long totalValue;
+
+    @Getter
+    private final double valuePerHour;
+
+    // hooks whose salvage hasn't shown up in the hold yet; it is only read while open
+    @Getter
+    private final int pendingYieldHooks;
+
+    // boat facilities, grouped by kind
+    @Getter
+    private final List<FacilityRow> facilities;
+
+    SalvageSnapshot(
+            long version, boolean onBoat, boolean statusKnown, SalvageAnimation playerActivity,
+            int cargoUsed, int cargoMax, boolean cargoFull, int cargoSecondsToFull,
+            int trackedCrew, int activeCrew, List<CrewRow> crewRows, SalvageRateWindow rateWindow,
+            int totalSalvages, double avgIntervalSeconds, double recentRatePerHour,
+            Percentiles hookIntervals, Percentiles haulCycles, int secondsSinceLastSalvage, int crystalCooldownRemaining,
+            List<ItemYield> itemYields, List<SourceYield> sourceYields, long totalValue, double valuePerHour,
+            int pendingYieldHooks, List<FacilityRow> facilities)
+    {
+        this.version = version;
+        this.onBoat = onBoat;
+        this.statusKnown = statusKnown;
+        this.playerActivity = playerActivity;
+        this.cargoUsed = cargoUsed;
+        this.cargoMax = cargoMax;
+        this.cargoFull = cargoFull;
+        this.cargoSecondsToFull = cargoSecondsToFull;
+        this.trackedCrew = trackedCrew;
+        this.activeCrew = activeCrew;
+        this.crewRows = crewRows;
+        this.rateWindow = rateWindow;
+        this.totalSalvages = totalSalvages;
+        this.avgIntervalSeconds = avgIntervalSeconds;
+        this.recentRatePerHour = recentRatePerHour;
+        this.hookIntervals = hookIntervals;
+        this.haulCycles = haulCycles;
+        this.secondsSinceLastSalvage = secondsSinceLastSalvage;
+        this.crystalCooldownRemaining = crystalCooldownRemaining;
+        this.itemYields = itemYields;
+        this.sourceYields = sourceYields;
+        this.totalValue = totalValue;
+        this.valuePerHour = valuePerHour;
+        this.pendingYieldHooks = pendingYieldHooks;
+        this.facilities = facilities;
+    }
+}
@@ -0,0 +1,212 @@
+package com.salvaging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves the statistics work off the client thread.
+ *
+ * The plugin's handlers {@link #post post} small primitive records into a
+ * {@link SalvageEventRing}; a background thread drains them in batches into
+ * {@link SalvageSessionStats}, which journals them and publishes the overlay
+ * snapshot. Posting is a handful of array stores and an ordered write, and the
+ * worker is only woken once per game tick.
+ *
+ * While the worker isn't running (before startUp, or headless in the benchmarks
+ * and trace replay) records are applied directly on the calling thread instead.
+ */
+@Slf4j
+@Singleton
+class SalvageStatsWorker
+{
+    // a few hundred ticks worth of events; posts are dropped rather than block the client
+    private static final int RING_CAPACITY = 8192;
+    private static final int BATCH = 256;
+
+    // the worker is woken every tick anyway, this is just a safety net
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final SalvageEventRing.Handler DISCARD = (type, tick, a, b, c, d) ->
+    {
+    };
+
+    private final SalvageSessionStats stats;
+    private final SalvagePerfCounters perf;
+    private final SalvageEventRing ring = new SalvageEventRing(RING_CAPACITY);
+    private final SalvageEventRing.Handler handler = this::applySafely;
+
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    // posts that found the ring full or the worker stuck; written by the client thread only
+    @Getter
+    private long dropped;
+
+    @Inject
+    private SalvageStatsWorker(SalvageSessionStats stats, SalvagePerfCounters perf)
+    {
+        this.stats = stats;
+        this.perf = perf;
+    }
+
+    void start()
+    {
+        Thread old = thread;
+        if (old != null)
+        {
+            if (running || old.isAlive())
+            {
+                // running, or stuck since stop and still the ring's only consumer
+                return;
+            }
+
+            // a stuck worker that has finished after all; what it left behind was
+            // posted before stop, for stats that have been reset since
+            while (ring.drain(DISCARD, BATCH) > 0)
+            {
+                // keep draining
+            }
+        }
+
+        running = true;
+        Thread t = new Thread(this::run, "salvaging-stats");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    /**
+     * Stops the worker after it has applied everything posted so far.
+     */
+    void stop()
+    {
+        Thread t = thread;
+        if (t == null)
+        {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(t);
+        join(t);
+        if (t.isAlive())
+        {
+            // stuck in a batch; wake it up for good
+            t.interrupt();
+            join(t);
+        }
+
+        if (t.isAlive())
+        {
+            // the ring has a single consumer, and it is still the worker; it also
+            // still writes the stats, so posts are dropped from here on rather than
+            // applied next to it
+            log.warn("salvaging stats worker did not stop, records still in its queue are not applied");
+            return;
+        }
+        thread = null;
+
+        // anything posted after the worker's last batch
+        while (ring.drain(handler, BATCH) > 0)
+        {
+            // keep draining
+        }
+    }
+
+    private static void join(Thread t)
+    {
+        try
+        {
+            t.join(TimeUnit.NANOSECONDS.toMillis(FLUSH_TIMEOUT_NANOS) * 5);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a record to the stats. Client thread only.
+     */
+    void post(byte type, long tick, int a, int b, int c, int d)
+    {
+        Thread t = thread;
+        if (t == null)
+        {
+            stats.apply(type, tick, a, b, c, d);
+            return;
+        }
+        if (!running)
+        {
+            // stopped, but stuck: the worker may still be writing the stats
+            dropped++;
+            return;
+        }
+
+        if (!ring.offer(type, tick, a, b, c, d))
+        {
+            dropped++;
+            return;
+        }
+
+        if (type == SalvageSessionStats.TICK)
+        {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * Waits (briefly) until the worker has applied everything posted so far, so the
+     * caller can read what the worker writes, e.g. the session journal.
+     */
+    void flush()
+    {
+        Thread t = thread;
+        if (t == null || !running)
+        {
+            return;
+        }
+
+        LockSupport.unpark(t);
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+        while (!ring.isEmpty() && System.nanoTime() < deadline)
+        {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+    }
+
+    private void run()
+    {
+        perf.claimWorkerStripe();
+        while (running)
+        {
+            long start = perf.start();
+            if (ring.drain(handler, BATCH) == 0)
+            {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            else
+            {
+                perf.stop(SalvagePerfProbe.STATS_BATCH, start);
+            }
+        }
+    }
+
+    private void applySafely(byte type, long tick, int a, int b, int c, int d)
+    {
+        try
+        {
+            stats.apply(type, tick, a, b, c, d);
+        }
+        catch (RuntimeException ex)
+        {
+            // one bad record must not take the worker down with it
+            log.warn("salvaging stats record {} failed", type, ex);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.salvaging;
+
+import java.util.Locale;
+
+/**
+ * Number-to-text for the overlays without allocating in the steady state.
+ *
+ * Small integers and one-decimal values are turned into strings once and then
+ * looked up; anything outside the tables falls back to a fresh string. The
+ * tables fill lazily, and a racing fill just builds an equal string twice.
+ */
+final class SalvageText
+{
+    // 0..9999, plenty for hook counts and seconds
+    private static final String[] INTS = new String[10_000];
+
+    // 0.0..1999.9 in tenths, covers intervals and hooks/hr
+    private static final String[] TENTHS = new String[20_000];
+
+    private SalvageText()
+    {
+    }
+
+    static String number(int value)
+    {
+        if (value < 0 || value >= INTS.length)
+        {
+            return Integer.toString(value);
+        }
+
+        String text = INTS[value];
+        if (text == null)
+        {
+            text = Integer.toString(value);
+            INTS[value] = text;
+        }
+        return text;
+    }
+
+    /**
+     * The value rounded to one decimal, the key {@link #oneDecimal} caches by.
+     */
+    static long tenths(double value)
+    {
+        return Math.round(value * 10);
+    }
+
+    /**
+     * Same text as {@code String.format(Locale.ROOT, "%.1f", value)} for non-negative
+     * values: always a '.', whatever the default locale.
+     */
+    static String oneDecimal(double value)
+    {
+        long tenths = tenths(value);
+        if (tenths < 0 || tenths >= TENTHS.length)
+        {
+            return String.format(Locale.ROOT, "%.1f", value);
+        }
+
+        int i = (int) tenths;
+        String text = TENTHS[i];
+        if (text == null)
+        {
+            text = (i / 10) + "." + (i % 10);
+            TENTHS[i] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Remembers up to three values a piece of text was built from, so the text is
+     * only rebuilt when one of them changes.
+     */
+    static final class Key
+    {
+        private boolean set;
+        private long a;
+        private long b;
+        private long c;
+
+        boolean changed(long a)
+        {
+            return changed(a, 0, 0);
+        }
+
+        boolean changed(long a, long b)
+        {
+            return changed(a, b, 0);
+        }
+
+        boolean changed(long a, long b, long c)
+        {
+            if (set && this.a == a && this.b == b && this.c == c)
+            {
+                return false;
+            }
+
+            set = true;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.salvaging;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timer wheel with one bucket per game tick. Timers are small ints picked
+ * by the caller (one per thing that can expire, e.g. one per crew slot), each
+ * either pending with a deadline or not; scheduling, rescheduling and cancelling
+ * are O(1), and every tick only looks at the timers hashed to that tick.
+ *
+ * A timer fires exactly once, on its deadline tick, unless it is rescheduled or
+ * cancelled first. Deadlines further out than the wheel is long just stay in
+ * their bucket for another lap. Client thread only.
+ */
+class SalvageTimerWheel
+{
+    /**
+     * Told about every timer that expired; it may schedule timers again, this one included.
+     */
+    interface Listener
+    {
+        void expired(int timer, long tick);
+    }
+
+    // ~5 minutes of ticks; power of two
+    static final int WHEEL_TICKS = 512;
+    private static final int MASK = WHEEL_TICKS - 1;
+
+    private static final int NONE = -1;
+
+    private final Listener listener;
+
+    // per bucket, the first timer in it
+    private final int[] heads = new int[WHEEL_TICKS];
+
+    // per timer; a timer is pending while it is linked into a bucket
+    private final long[] deadlines;
+    private final int[] next;
+    private final int[] prev;
+    private final boolean[] pending;
+
+    // the last tick that has been fired
+    private long current = 0;
+
+    SalvageTimerWheel(int timers, Listener listener)
+    {
+        this.listener = listener;
+        deadlines = new long[timers];
+        next = new int[timers];
+        prev = new int[timers];
+        pending = new boolean[timers];
+        clear();
+    }
+
+    /**
+     * Cancels every timer.
+     */
+    void clear()
+    {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(pending, false);
+    }
+
+    /**
+     * Cancels every timer and starts over at tick 0, along with the clock.
+     */
+    void reset()
+    {
+        clear();
+        current = 0;
+    }
+
+    /**
+     * Sets the timer to fire on the given tick, replacing its deadline if it was
+     * already pending. A deadline that has passed fires on the next advance.
+     */
+    void schedule(int timer, long deadline)
+    {
+        if (pending[timer])
+        {
+            unlink(timer);
+        }
+
+        deadline = Math.max(deadline, current + 1);
+        deadlines[timer] = deadline;
+
+        int bucket = (int) (deadline & MASK);
+        prev[timer] = NONE;
+        next[timer] = heads[bucket];
+        if (heads[bucket] != NONE)
+        {
+            prev[heads[bucket]] = timer;
+        }
+        heads[bucket] = timer;
+        pending[timer] = true;
+    }
+
+    void cancel(int timer)
+    {
+        if (pending[timer])
+        {
+            unlink(timer);
+        }
+    }
+
+    boolean isPending(int timer)
+    {
+        return pending[timer];
+    }
+
+    /**
+     * Fires every timer due up to and including the given tick, in tick order.
+     */
+    void advanceTo(long tick)
+    {
+        if (tick - current > WHEEL_TICKS)
+        {
+            // a jump (restored clock): one lap over every bucket catches everything due
+            current = tick - WHEEL_TICKS;
+        }
+
+        while (current < tick)
+        {
+            current++;
+            fireBucket((int) (current & MASK));
+        }
+    }
+
+    private void fireBucket(int bucket)
+    {
+        int timer = heads[bucket];
+        while (timer != NONE)
+        {
+            if (deadlines[timer] > current)
+            {
+                // a later lap
+                timer = next[timer];
+                continue;
+            }
+
+            unlink(timer);
+            listener.expired(timer, current);
+            // the listener may have moved timers around; anything it scheduled is
+            // due after now, so starting over only finds what is still due
+            timer = heads[bucket];
+        }
+    }
+
+    private void unlink(int timer)
+    {
+        int bucket = (int) (deadlines[timer] & MASK);
+        if (prev[timer] != NONE)
+        {
+            next[prev[timer]] = next[timer];
+        }
+        else
+        {
+            heads[bucket] = next[timer];
+        }
+        if (next[timer] != NONE)
+        {
+            prev[next[timer]] = prev[timer];
+        }
+        pending[timer] = false;
+    }
+}
@@ -3,7 +3,10 @@ package com.salvaging;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.List;
 import javax.inject.Inject;
+import net.runelite.client.ui.overlay.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LineComponent;
@@ -12,105 +15,322 @@ import net.runelite.client.ui.overlay.components.TitleComponent;
 class SalvageTimingOverlay extends OverlayPanel
 {
     private final SalvagingPlugin plugin;
-    private final SalvagingConfig config;
+    private final SalvageConfigCache configCache;
+    private final SalvagePerfCounters perf;
+
+    // redrawn at most once per snapshot
+    private final SalvageRenderCache renderCache = new SalvageRenderCache(this::paintPanel);
+
+    // built once; text is only rebuilt when the numbers behind it change
+    private final TitleComponent title = TitleComponent.builder()
+            .text("Salvage timing")
+            .color(Color.WHITE)
+            .build();
+    private final LineComponent totalLine = line("Total salvages:");
+    private final LineComponent avgLine = line("Avg between hooks:");
+    private final LineComponent rateLine = line(null);
+    private final LineComponent hookSpreadLine = line("Hooks p50/90/99:");
+    private final LineComponent longestGapLine = line("Longest gap:");
+    private final LineComponent sinceLastLine = line("Last salvage:");
+    private final LineComponent haulSpreadLine = line("Haul p50/90/99:");
+    private final LineComponent crystalLine = line("Crystal hook:");
+    private final List<CrewLine> crewLines = new ArrayList<>();
+    private final List<FacilityLine> facilityLines = new ArrayList<>();
+
+    private final SalvageText.Key avgKey = new SalvageText.Key();
+    private final SalvageText.Key rateLeftKey = new SalvageText.Key();
+    private final SalvageText.Key hookSpreadKey = new SalvageText.Key();
+    private final SalvageText.Key longestGapKey = new SalvageText.Key();
+    private final SalvageText.Key sinceLastKey = new SalvageText.Key();
+    private final SalvageText.Key haulSpreadKey = new SalvageText.Key();
+    private final SalvageText.Key crystalKey = new SalvageText.Key();
+    private String crystalText;
 
     @Inject
-    private SalvageTimingOverlay(SalvagingPlugin plugin, SalvagingConfig config)
+    private SalvageTimingOverlay(SalvagingPlugin plugin, SalvageConfigCache configCache, SalvagePerfCounters perf)
     {
         super(plugin);
         this.plugin = plugin;
-        this.config = config;
+        this.configCache = configCache;
+        this.perf = perf;
         setPosition(OverlayPosition.TOP_LEFT);
     }
 
+    private static LineComponent line(String left)
+    {
+        return LineComponent.builder()
+                .left(left)
+                .build();
+    }
+
     @Override
     public Dimension render(Graphics2D graphics)
     {
-        panelComponent.getChildren().clear();
+        long start = perf.start();
+        Dimension size = renderPanel(graphics);
+        perf.stop(SalvagePerfProbe.TIMING_OVERLAY, start);
+        return size;
+    }
+
+    private Dimension renderPanel(Graphics2D graphics)
+    {
+        SalvageSettings settings = configCache.get();
 
-        if (!plugin.isOnBoat())
+        // in HUD mode the HUD overlay draws this section instead
+        if (settings.isHudMode())
         {
+            renderCache.clear();
             return null;
         }
-        if (!config.showTimingPanel())
+        return renderCache.render(graphics, plugin.getSnapshot(), settings, getPreferredSize());
+    }
+
+    private Dimension paintPanel(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        panelComponent.getChildren().clear();
+
+        if (!addSection(panelComponent.getChildren(), snapshot, settings))
         {
             return null;
         }
+        return super.render(graphics);
+    }
 
-        int total = plugin.getCrewTotalSalvages();
-        double avgSeconds = plugin.getCrewAverageIntervalSeconds();
-        int sinceLast = plugin.getCrewSecondsSinceLastSalvage();
+    /**
+     * Adds this overlay's lines to a panel, its own or the HUD's.
+     *
+     * @return false if there is nothing to show
+     */
+    boolean addSection(List<LayoutableRenderableEntity> children, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        if (!snapshot.isOnBoat())
+        {
+            return false;
+        }
+        if (!settings.isShowTimingPanel())
+        {
+            return false;
+        }
+
+        int total = snapshot.getTotalSalvages();
+        double avgSeconds = snapshot.getAvgIntervalSeconds();
+        int sinceLast = snapshot.getSecondsSinceLastSalvage();
 
         // Crystal hook cooldown (-1 = never seen, 0 = ready, >0 = seconds left)
-        int crystalRemaining = plugin.getCrystalCooldownSecondsRemaining();
+        int crystalRemaining = snapshot.getCrystalCooldownRemaining();
 
-        // If we have neither salvage data nor crystal info, hide the panel
-        if (total == 0 && crystalRemaining < 0)
+        List<SalvageSnapshot.FacilityRow> facilities = snapshot.getFacilities();
+
+        // If we have neither salvage data, hauls, facilities nor crystal info, hide the panel
+        if (total == 0 && crystalRemaining < 0 && snapshot.getHaulCycles().getCount() == 0 && facilities.isEmpty())
         {
-            return null;
+            return false;
         }
 
-        panelComponent.getChildren().add(
-                TitleComponent.builder()
-                        .text("Salvage timing")
-                        .color(Color.WHITE)
-                        .build()
-        );
+        children.add(title);
 
         // --- Crew salvage timing (only if we actually have any salvages) ---
         if (total > 0)
         {
-            panelComponent.getChildren().add(
-                    LineComponent.builder()
-                            .left("Total salvages:")
-                            .right(Integer.toString(total))
-                            .build()
-            );
-
-            panelComponent.getChildren().add(
-                    LineComponent.builder()
-                            .left("Avg between hooks:")
-                            .right(String.format("%.1fs", avgSeconds))
-                            .build()
-            );
+            totalLine.setRight(SalvageText.number(total));
+            children.add(totalLine);
+
+            if (avgKey.changed(SalvageText.tenths(avgSeconds)))
+            {
+                avgLine.setRight(SalvageText.oneDecimal(avgSeconds) + "s");
+            }
+            children.add(avgLine);
+
+            double recentRate = snapshot.getRecentRatePerHour();
+            if (recentRate > 0)
+            {
+                if (rateLeftKey.changed(snapshot.getRateWindow().ordinal()))
+                {
+                    rateLine.setLeft("Hooks/hr (" + snapshot.getRateWindow() + "):");
+                }
+                rateLine.setRight(SalvageText.oneDecimal(recentRate));
+                children.add(rateLine);
+            }
+
+            // interval spread: one stall barely moves these, unlike the average
+            SalvageSnapshot.Percentiles hooks = snapshot.getHookIntervals();
+            if (hooks.getCount() > 0)
+            {
+                if (hookSpreadKey.changed(SalvageText.tenths(hooks.getP50()), SalvageText.tenths(hooks.getP90()),
+                        SalvageText.tenths(hooks.getP99())))
+                {
+                    hookSpreadLine.setRight(spread(hooks));
+                }
+                children.add(hookSpreadLine);
+
+                if (longestGapKey.changed(SalvageText.tenths(hooks.getMax())))
+                {
+                    longestGapLine.setRight(SalvageText.oneDecimal(hooks.getMax()) + "s");
+                }
+                children.add(longestGapLine);
+            }
+
+            List<SalvageSnapshot.CrewRow> rows = snapshot.getCrewRows();
+            int shown = 0;
+            for (int i = 0; i < rows.size(); i++)
+            {
+                SalvageSnapshot.CrewRow row = rows.get(i);
+                if (row.getIntervals().getCount() == 0)
+                {
+                    continue;
+                }
+
+                if (shown == crewLines.size())
+                {
+                    crewLines.add(new CrewLine());
+                }
+                children.add(crewLines.get(shown++).update(row));
+            }
 
             if (sinceLast >= 0)
             {
-                panelComponent.getChildren().add(
-                        LineComponent.builder()
-                                .left("Last salvage:")
-                                .right(sinceLast + "s ago")
-                                .build()
-                );
+                if (sinceLastKey.changed(sinceLast))
+                {
+                    sinceLastLine.setRight(SalvageText.number(sinceLast) + "s ago");
+                }
+                children.add(sinceLastLine);
             }
         }
 
-        // --- Crystal extractor cooldown (if we've seen at least one proc) ---
-        if (crystalRemaining >= 0)
+        // --- Player hauling cycle, start to start ---
+        SalvageSnapshot.Percentiles hauls = snapshot.getHaulCycles();
+        if (hauls.getCount() > 0)
         {
-            String rightText;
-            Color rightColor;
+            if (haulSpreadKey.changed(SalvageText.tenths(hauls.getP50()), SalvageText.tenths(hauls.getP90()),
+                    SalvageText.tenths(hauls.getP99())))
+            {
+                haulSpreadLine.setRight(spread(hauls));
+            }
+            children.add(haulSpreadLine);
+        }
+
+        // --- Every facility on the boat ---
+        boolean extractorShown = false;
+        for (int i = 0; i < facilities.size(); i++)
+        {
+            SalvageSnapshot.FacilityRow row = facilities.get(i);
+            extractorShown |= row.getKind() == SalvageFacilityKind.CRYSTAL_EXTRACTOR;
 
+            if (i == facilityLines.size())
+            {
+                facilityLines.add(new FacilityLine());
+            }
+            children.add(facilityLines.get(i).update(row, snapshot.isCargoFull()));
+        }
+
+        // --- Crystal extractor cooldown (if we've seen at least one proc, but not the extractor) ---
+        if (crystalRemaining >= 0 && !extractorShown)
+        {
             if (crystalRemaining == 0)
             {
-                rightText = "READY";
-                rightColor = Color.GREEN;
+                crystalLine.setRight("READY");
+                crystalLine.setRightColor(Color.GREEN);
             }
             else
             {
-                rightText = crystalRemaining + "s";
-                rightColor = Color.YELLOW;
+                if (crystalKey.changed(crystalRemaining))
+                {
+                    crystalText = SalvageText.number(crystalRemaining) + "s";
+                }
+                crystalLine.setRight(crystalText);
+                crystalLine.setRightColor(Color.YELLOW);
             }
 
-            panelComponent.getChildren().add(
-                    LineComponent.builder()
-                            .left("Crystal hook:")
-                            .right(rightText)
-                            .rightColor(rightColor)
-                            .build()
-            );
+            children.add(crystalLine);
         }
 
-        return super.render(graphics);
+        return true;
+    }
+
+    /**
+     * "p50 / p90 / p99s", as the percentile lines show it.
+     */
+    private static String spread(SalvageSnapshot.Percentiles p)
+    {
+        return SalvageText.oneDecimal(p.getP50()) + " / " + SalvageText.oneDecimal(p.getP90())
+                + " / " + SalvageText.oneDecimal(p.getP99()) + "s";
+    }
+
+    /**
+     * One facility's status line, rebuilt only when what it shows changes.
+     */
+    private static final class FacilityLine
+    {
+        private final LineComponent line = LineComponent.builder().build();
+        private final SalvageText.Key key = new SalvageText.Key();
+
+        LineComponent update(SalvageSnapshot.FacilityRow row, boolean cargoFull)
+        {
+            SalvageFacilityKind kind = row.getKind();
+            int shown;
+            switch (kind)
+            {
+                case CRYSTAL_EXTRACTOR:
+                    shown = row.getCooldownRemaining();
+                    break;
+                case CARGO_HOLD:
+                    shown = cargoFull ? 1 : 0;
+                    break;
+                default:
+                    shown = row.getUses() << 1 | (row.isActive() ? 1 : 0);
+                    break;
+            }
+            if (!key.changed(kind.ordinal() << 8 | row.getNumber(), shown))
+            {
+                return line;
+            }
+
+            line.setLeft(kind.getLabel() + " " + SalvageText.number(row.getNumber()) + ":");
+            switch (kind)
+            {
+                case CRYSTAL_EXTRACTOR:
+                    line.setRight(shown == 0 ? "READY" : SalvageText.number(shown) + "s");
+                    line.setRightColor(shown == 0 ? Color.GREEN : Color.YELLOW);
+                    break;
+                case CARGO_HOLD:
+                    line.setRight(cargoFull ? "FULL" : "OK");
+                    line.setRightColor(cargoFull ? Color.RED : Color.WHITE);
+                    break;
+                default:
+                    line.setRight(SalvageText.number(row.getUses()) + (row.isActive() ? " (in use)" : ""));
+                    line.setRightColor(row.isActive() ? Color.WHITE : Color.GRAY);
+                    break;
+            }
+            return line;
+        }
+    }
+
+    /**
+     * One crewmate's interval line, rebuilt only when the name or numbers shown change.
+     */
+    private static final class CrewLine
+    {
+        private final LineComponent line = LineComponent.builder()
+                .leftColor(Color.GRAY)
+                .rightColor(Color.GRAY)
+                .build();
+        private final SalvageText.Key key = new SalvageText.Key();
+        private String name;
+
+        LineComponent update(SalvageSnapshot.CrewRow row)
+        {
+            if (!row.getName().equals(name))
+            {
+                name = row.getName();
+                line.setLeft(" " + name + " p50/90:");
+            }
+
+            SalvageSnapshot.Percentiles own = row.getIntervals();
+            if (key.changed(SalvageText.tenths(own.getP50()), SalvageText.tenths(own.getP90())))
+            {
+                line.setRight(SalvageText.oneDecimal(own.getP50()) + " / " + SalvageText.oneDecimal(own.getP90()) + "s");
+            }
+            return line;
+        }
     }
 }
@@ -0,0 +1,240 @@
+package com.salvaging;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+
+import net.runelite.client.ui.overlay.LayoutableRenderableEntity;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+import net.runelite.client.util.QuantityFormatter;
+
+class SalvageYieldOverlay extends OverlayPanel
+{
+    // the hold takes a handful of salvage kinds; the rest of the list is rarely interesting
+    private static final int MAX_ITEM_LINES = 8;
+
+    private final SalvagingPlugin plugin;
+    private final SalvageConfigCache configCache;
+    private final SalvagePerfCounters perf;
+
+    // redrawn at most once per snapshot
+    private final SalvageRenderCache renderCache = new SalvageRenderCache(this::paintPanel);
+    private final SalvageItemNames itemNames;
+
+    // built once; text is only rebuilt when the numbers behind it change
+    private final TitleComponent title = TitleComponent.builder()
+            .text("Salvage yield")
+            .color(Color.WHITE)
+            .build();
+    private final LineComponent valueLine = LineComponent.builder()
+            .left("GE value:")
+            .rightColor(Color.YELLOW)
+            .build();
+    private final SalvageText.Key valueKey = new SalvageText.Key();
+    private final LineComponent sourceLegendLine = LineComponent.builder()
+            .left("Brought in by")
+            .leftColor(Color.GRAY)
+            .right("items (/hr)")
+            .rightColor(Color.GRAY)
+            .build();
+    // the game only sends the hold's items while it is open, until then they can't be told apart
+    private final LineComponent pendingLine = LineComponent.builder()
+            .left("Open the hold to count:")
+            .leftColor(Color.GRAY)
+            .rightColor(Color.GRAY)
+            .build();
+    private final SalvageText.Key pendingKey = new SalvageText.Key();
+    private final List<ItemLine> itemLines = new ArrayList<>();
+    private final List<SourceLine> sourceLines = new ArrayList<>();
+
+    @Inject
+    private SalvageYieldOverlay(SalvagingPlugin plugin, SalvageConfigCache configCache, SalvagePerfCounters perf,
+                                SalvageItemNames itemNames)
+    {
+        super(plugin);
+        this.plugin = plugin;
+        this.configCache = configCache;
+        this.perf = perf;
+        this.itemNames = itemNames;
+        setPosition(OverlayPosition.TOP_LEFT);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        long start = perf.start();
+        Dimension size = renderPanel(graphics);
+        perf.stop(SalvagePerfProbe.YIELD_OVERLAY, start);
+        return size;
+    }
+
+    private Dimension renderPanel(Graphics2D graphics)
+    {
+        SalvageSettings settings = configCache.get();
+
+        // in HUD mode the HUD overlay draws this section instead
+        if (settings.isHudMode())
+        {
+            renderCache.clear();
+            return null;
+        }
+        return renderCache.render(graphics, plugin.getSnapshot(), settings, getPreferredSize());
+    }
+
+    private Dimension paintPanel(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        panelComponent.getChildren().clear();
+
+        if (!addSection(panelComponent.getChildren(), snapshot, settings))
+        {
+            return null;
+        }
+        return super.render(graphics);
+    }
+
+    /**
+     * Adds this overlay's lines to a panel, its own or the HUD's.
+     *
+     * @return false if there is nothing to show
+     */
+    boolean addSection(List<LayoutableRenderableEntity> children, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        if (!snapshot.isOnBoat())
+        {
+            return false;
+        }
+        if (!settings.isShowYieldPanel())
+        {
+            return false;
+        }
+
+        List<SalvageSnapshot.ItemYield> items = snapshot.getItemYields();
+        int pending = snapshot.getPendingYieldHooks();
+        if (items.isEmpty() && pending == 0)
+        {
+            return false;
+        }
+
+        children.add(title);
+
+        if (pending > 0)
+        {
+            if (pendingKey.changed(pending))
+            {
+                pendingLine.setRight(SalvageText.number(pending) + (pending == 1 ? " hook" : " hooks"));
+            }
+            children.add(pendingLine);
+        }
+        if (items.isEmpty())
+        {
+            return true;
+        }
+
+        // priced on the client thread as items came in; nothing is looked up here
+        long value = snapshot.getTotalValue();
+        long valuePerHour = Math.round(snapshot.getValuePerHour());
+        if (valueKey.changed(value, valuePerHour))
+        {
+            String text = QuantityFormatter.quantityToStackSize(value);
+            if (valuePerHour > 0)
+            {
+                text += " (" + QuantityFormatter.quantityToStackSize(valuePerHour) + "/hr)";
+            }
+            valueLine.setRight(text);
+        }
+        children.add(valueLine);
+
+        // items arrive sorted by quantity
+        int shown = Math.min(items.size(), MAX_ITEM_LINES);
+        for (int i = 0; i < shown; i++)
+        {
+            if (i == itemLines.size())
+            {
+                itemLines.add(new ItemLine());
+            }
+            children.add(itemLines.get(i).update(items.get(i), itemNames));
+        }
+
+        List<SalvageSnapshot.SourceYield> sources = snapshot.getSourceYields();
+        children.add(sourceLegendLine);
+        for (int i = 0; i < sources.size(); i++)
+        {
+            if (i == sourceLines.size())
+            {
+                sourceLines.add(new SourceLine());
+            }
+            children.add(sourceLines.get(i).update(sources.get(i)));
+        }
+
+        return true;
+    }
+
+    private static String amount(int quantity, double perHour)
+    {
+        String text = SalvageText.number(quantity);
+        if (perHour > 0)
+        {
+            text += " (" + SalvageText.oneDecimal(perHour) + ")";
+        }
+        return text;
+    }
+
+    /**
+     * One item's line; the name is looked up once per item id shown on it.
+     */
+    private static final class ItemLine
+    {
+        private final LineComponent line = LineComponent.builder().build();
+        private final SalvageText.Key key = new SalvageText.Key();
+        private int itemId = -1;
+
+        LineComponent update(SalvageSnapshot.ItemYield yield, SalvageItemNames itemNames)
+        {
+            if (yield.getItemId() != itemId)
+            {
+                itemId = yield.getItemId();
+                line.setLeft(itemNames.name(itemId) + ":");
+            }
+
+            if (key.changed(itemId, yield.getQuantity(), SalvageText.tenths(yield.getPerHour())))
+            {
+                line.setRight(amount(yield.getQuantity(), yield.getPerHour()));
+            }
+            return line;
+        }
+    }
+
+    /**
+     * One source's line, rebuilt only when the name or numbers shown change.
+     */
+    private static final class SourceLine
+    {
+        private final LineComponent line = LineComponent.builder()
+                .leftColor(Color.GRAY)
+                .rightColor(Color.GRAY)
+                .build();
+        private final SalvageText.Key key = new SalvageText.Key();
+        private String name;
+
+        LineComponent update(SalvageSnapshot.SourceYield yield)
+        {
+            if (!yield.getName().equals(name))
+            {
+                name = yield.getName();
+                line.setLeft(" " + name + ":");
+            }
+
+            if (key.changed(yield.getItems(), SalvageText.tenths(yield.getPerHour())))
+            {
+                line.setRight(amount(yield.getItems(), yield.getPerHour()));
+            }
+            return line;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.salvaging;
+
+/**
+ * Items that went into the cargo hold this session, per item and per source:
+ * the player's own hauls or one of the crew, and what they were worth when they
+ * came in.
+ *
+ * Sources are numbered like crew ids, with {@link #PLAYER} for the player.
+ */
+class SalvageYieldTable
+{
+    static final int PLAYER = -1;
+
+    private static final int SOURCES = 1 + SalvageCrewRoster.CREW_NAMES.size();
+
+    // a first haul a few seconds ago isn't a rate yet
+    private static final int MIN_RATE_TICKS = TickClock.secondsToTicks(60);
+
+    private final SalvageItemCounts total = new SalvageItemCounts();
+    private final SalvageItemCounts[] bySource = new SalvageItemCounts[SOURCES];
+    private final int[] sourceTotals = new int[SOURCES];
+    private final long[] sourceValues = new long[SOURCES];
+    private final long[] sourceFirstTicks = new long[SOURCES];
+    private long totalValue = 0;
+    private long firstTick = TickClock.NEVER;
+
+    SalvageYieldTable()
+    {
+        for (int i = 0; i < SOURCES; i++)
+        {
+            bySource[i] = new SalvageItemCounts();
+        }
+        clear();
+    }
+
+    static boolean isSource(int source)
+    {
+        return source >= PLAYER && source + 1 < SOURCES;
+    }
+
+    static String nameOf(int source)
+    {
+        return source == PLAYER ? "You" : SalvageCrewRoster.nameOf(source);
+    }
+
+    void clear()
+    {
+        total.clear();
+        for (int i = 0; i < SOURCES; i++)
+        {
+            bySource[i].clear();
+            sourceTotals[i] = 0;
+            sourceValues[i] = 0;
+            sourceFirstTicks[i] = TickClock.NEVER;
+        }
+        totalValue = 0;
+        firstTick = TickClock.NEVER;
+    }
+
+    void add(int source, int itemId, int quantity, long tick)
+    {
+        int s = source + 1;
+        total.add(itemId, quantity);
+        bySource[s].add(itemId, quantity);
+        sourceTotals[s] += quantity;
+
+        if (sourceFirstTicks[s] == TickClock.NEVER)
+        {
+            sourceFirstTicks[s] = tick;
+        }
+        if (firstTick == TickClock.NEVER)
+        {
+            firstTick = tick;
+        }
+    }
+
+    /**
+     * Adds the GE value of a gain, on top of its {@link #add items}.
+     */
+    void addValue(int source, long value)
+    {
+        sourceValues[source + 1] += value;
+        totalValue += value;
+    }
+
+    boolean isEmpty()
+    {
+        return total.size() == 0;
+    }
+
+    /**
+     * Every item gained, all sources together.
+     */
+    void forEachItem(SalvageItemCounts.Visitor visitor)
+    {
+        total.forEach(visitor);
+    }
+
+    /**
+     * Every item one source brought in.
+     */
+    void forEachItem(int source, SalvageItemCounts.Visitor visitor)
+    {
+        bySource[source + 1].forEach(visitor);
+    }
+
+    int quantity(int source, int itemId)
+    {
+        return bySource[source + 1].get(itemId);
+    }
+
+    int sourceTotal(int source)
+    {
+        return sourceTotals[source + 1];
+    }
+
+    long sourceValue(int source)
+    {
+        return sourceValues[source + 1];
+    }
+
+    long totalValue()
+    {
+        return totalValue;
+    }
+
+    /**
+     * GP per hour since the first yield of the session.
+     */
+    double valuePerHour(long now)
+    {
+        return perHour(totalValue, firstTick, now);
+    }
+
+    /**
+     * Items per hour for a quantity gained since the first yield of the session.
+     */
+    double perHour(int quantity, long now)
+    {
+        return perHour(quantity, firstTick, now);
+    }
+
+    /**
+     * Items per hour the source has been bringing in since its own first yield.
+     */
+    double sourcePerHour(int source, long now)
+    {
+        int s = source + 1;
+        return perHour(sourceTotals[s], sourceFirstTicks[s], now);
+    }
+
+    private static double perHour(long quantity, long since, long now)
+    {
+        if (since == TickClock.NEVER || now - since < MIN_RATE_TICKS)
+        {
+            return 0;
+        }
+        return quantity / TickClock.ticksToHours(now - since);
+    }
+}
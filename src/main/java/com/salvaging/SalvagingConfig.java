@@ -6,10 +6,13 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Units;
 
-@ConfigGroup("salvaging")
+@ConfigGroup(SalvagingConfig.GROUP)
 public interface SalvagingConfig extends Config
 {
+    String GROUP = "salvaging";
+
     @ConfigSection(
             name = "Overlays",
             description = "Toggle individual overlays",
@@ -24,6 +27,21 @@ public interface SalvagingConfig extends Config
     )
     String cargoSection = "cargoSection";
 
+    @ConfigSection(
+            name = "Notifications",
+            description = "Notifications besides the cargo warning",
+            position = 2
+    )
+    String notificationsSection = "notificationsSection";
+
+    @ConfigSection(
+            name = "Debug",
+            description = "Tools for measuring the plugin itself",
+            position = 98,
+            closedByDefault = true
+    )
+    String debugSection = "debugSection";
+
     @ConfigSection(
             name = "Credits",
             description = "cerdit and dedications",
@@ -80,6 +98,68 @@ public interface SalvagingConfig extends Config
         return true;
     }
 
+    @ConfigItem(
+            keyName = "rateWindow",
+            name = "Recent rate window",
+            description = "How far back the recent hooks/hr look, next to the whole-session rate.",
+            position = 4,
+            section = overlaysSection
+    )
+    default SalvageRateWindow rateWindow()
+    {
+        return SalvageRateWindow.FIFTEEN_MINUTES;
+    }
+
+    @ConfigItem(
+            keyName = "showYieldPanel",
+            name = "Show yield panel",
+            description = "Show which items went into the cargo hold, and who brought them in.",
+            position = 5,
+            section = overlaysSection
+    )
+    default boolean showYieldPanel()
+    {
+        return true;
+    }
+
+    @ConfigItem(
+            keyName = "hudMode",
+            name = "Combine into one HUD",
+            description = "Draw all panels as one overlay, which is cheaper than one overlay per panel."
+                    + " Turn off to move the panels separately.",
+            position = 6,
+            section = overlaysSection
+    )
+    default boolean hudMode()
+    {
+        return true;
+    }
+
+    @ConfigItem(
+            keyName = "cachePanelImages",
+            name = "Cache rendered panels",
+            description = "Draw each panel into an image once per game tick and reuse it on every frame in between."
+                    + " Turn off if a panel looks stale.",
+            position = 7,
+            section = overlaysSection
+    )
+    default boolean cachePanelImages()
+    {
+        return true;
+    }
+
+    @ConfigItem(
+            keyName = "showSidePanel",
+            name = "Show side panel",
+            description = "Add a side panel with charts of the session so far.",
+            position = 8,
+            section = overlaysSection
+    )
+    default boolean showSidePanel()
+    {
+        return true;
+    }
+
 
     @ConfigItem(
             keyName = "highlightCargoWhenFull",
@@ -118,6 +198,59 @@ public interface SalvagingConfig extends Config
         return 0;
     }
 
+    @Units(Units.SECONDS)
+    @ConfigItem(
+            keyName = "cargoFullWarningSeconds",
+            name = "Warn before full",
+            description = "Send a notification when the hold is predicted to be full within this many seconds. 0 disables it.",
+            position = 3,
+            section = cargoSection
+    )
+    default int cargoFullWarningSeconds()
+    {
+        return 30;
+    }
+
+
+    @ConfigItem(
+            keyName = "notifyCrystalReady",
+            name = "Crystal extractor ready",
+            description = "Send a notification when the crystal extractor's cooldown is over.",
+            position = 0,
+            section = notificationsSection
+    )
+    default boolean notifyCrystalReady()
+    {
+        return false;
+    }
+
+
+    @ConfigItem(
+            keyName = "recordEventTrace",
+            name = "Record event trace",
+            description = "Record the events this plugin sees to .runelite/salvaging/traces for headless replay."
+                    + " Starts with the next login, hop or plugin restart.",
+            position = 0,
+            section = debugSection
+    )
+    default boolean recordEventTrace()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "showPerfOverlay",
+            name = "Show performance overlay",
+            description = "Show how long the plugin's event handlers and overlays take."
+                    + " Type ::salvageperf to write the numbers to .runelite/salvaging.",
+            position = 1,
+            section = debugSection
+    )
+    default boolean showPerfOverlay()
+    {
+        return false;
+    }
+
 
     @ConfigItem(
             keyName = "dedicationText",
@@ -3,8 +3,10 @@ package com.salvaging;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.util.List;
 import javax.inject.Inject;
 import net.runelite.api.Client;
+import net.runelite.client.ui.overlay.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.TitleComponent;
@@ -13,62 +15,97 @@ class SalvagingOverlay extends OverlayPanel
 {
     private final Client client;
     private final SalvagingPlugin plugin;
-    private final SalvagingConfig config;
+    private final SalvageConfigCache configCache;
+    private final SalvagePerfCounters perf;
+
+    // redrawn at most once per snapshot
+    private final SalvageRenderCache renderCache = new SalvageRenderCache(this::paintPanel);
+
+    // built once, only its text and color change
+    private final TitleComponent title = TitleComponent.builder().build();
 
     @Inject
-    private SalvagingOverlay(Client client, SalvagingPlugin plugin, SalvagingConfig config)
+    private SalvagingOverlay(Client client, SalvagingPlugin plugin, SalvageConfigCache configCache, SalvagePerfCounters perf)
     {
         super(plugin);
         setPosition(OverlayPosition.TOP_LEFT);
         this.client = client;
         this.plugin = plugin;
-        this.config = config;
+        this.configCache = configCache;
+        this.perf = perf;
     }
 
     @Override
     public Dimension render(Graphics2D graphics)
     {
-        panelComponent.getChildren().clear();
+        long start = perf.start();
+        Dimension size = renderPanel(graphics);
+        perf.stop(SalvagePerfProbe.STATUS_OVERLAY, start);
+        return size;
+    }
+
+    private Dimension renderPanel(Graphics2D graphics)
+    {
+        SalvageSettings settings = configCache.get();
 
-        if (!config.showStatusOverlay() || !plugin.isOnBoat())
+        // in HUD mode the HUD overlay draws this section instead
+        if (settings.isHudMode())
         {
+            renderCache.clear();
             return null;
         }
+        return renderCache.render(graphics, plugin.getSnapshot(), settings, getPreferredSize());
+    }
 
-        if (!plugin.isStatusKnown())
+    private Dimension paintPanel(Graphics2D graphics, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        panelComponent.getChildren().clear();
+
+        if (!addSection(panelComponent.getChildren(), snapshot, settings))
         {
             return null;
         }
+        return super.render(graphics);
+    }
 
-        boolean active = plugin.isActive();
-        boolean salvaging = plugin.isSalvaging();
-
-        String text;
-        Color color;
-
-        if (!active)
+    /**
+     * Adds this overlay's lines to a panel, its own or the HUD's.
+     *
+     * @return false if there is nothing to show
+     */
+    boolean addSection(List<LayoutableRenderableEntity> children, SalvageSnapshot snapshot, SalvageSettings settings)
+    {
+        if (!settings.isShowStatusOverlay() || !snapshot.isOnBoat())
         {
-            text = "IDLE";
-            color = Color.RED;
+            return false;
         }
-        else if (salvaging)
+
+        if (!snapshot.isStatusKnown())
         {
-            text = "Cleaning";
-            color = Color.GREEN;
+            return false;
         }
-        else
+
+        String text;
+        Color color = Color.GREEN;
+
+        switch (snapshot.getPlayerActivity())
         {
-            text = "Salvaging";
-            color = Color.GREEN;
+            case CLEANING:
+                text = "Cleaning";
+                break;
+            case HAULING:
+                text = "Salvaging";
+                break;
+            default:
+                text = "IDLE";
+                color = Color.RED;
+                break;
         }
 
-        panelComponent.getChildren().add(
-                TitleComponent.builder()
-                        .text(text)
-                        .color(color)
-                        .build()
-        );
+        title.setText(text);
+        title.setColor(color);
+        children.add(title);
 
-        return super.render(graphics);
+        return true;
     }
 }
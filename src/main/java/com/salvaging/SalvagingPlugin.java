@@ -1,105 +1,113 @@
 package com.salvaging;
 
-import com.google.common.collect.ImmutableSet;
 import com.google.inject.Provides;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
 import net.runelite.api.NPC;
+import net.runelite.api.Player;
 import net.runelite.api.Skill;
+import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.events.AnimationChanged;
 import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.CommandExecuted;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.NpcDespawned;
 import net.runelite.api.events.NpcSpawned;
 import net.runelite.api.events.OverheadTextChanged;
 import net.runelite.api.events.StatChanged;
+import net.runelite.api.events.WidgetClosed;
 import net.runelite.api.events.WidgetLoaded;
-import net.runelite.api.widgets.Widget;
+import net.runelite.client.Notifier;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
+import net.runelite.client.ui.ClientToolbar;
+import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.ui.overlay.OverlayManager;
-import net.runelite.client.util.Text;
 
 @PluginDescriptor(
         name = "Salvaging",
         description = "Shows salvaging statuses, cargo count and crew stats while Sailing.",
         tags = {"sailing", "salvage", "cargo"}
 )
+@Slf4j
 @Singleton
 public class SalvagingPlugin extends Plugin
 {
     // ---------- sailing / xp tracking ----------
 
-    private static final int SAILING_XP_WINDOW_MINUTES = 5;
+    private static final int SAILING_XP_WINDOW_TICKS = TickClock.secondsToTicks(5 * 60);
+
+    // Overhead "hooked salvage" must follow the crew XP chat line within this window
+    private static final int CREW_XP_WINDOW_TICKS = TickClock.secondsToTicks(2);
 
     // Crystal extractor
     private static final String CRYSTAL_MESSAGE =
             "Your crystal extractor has harvested a crystal mote!";
-    private static final int CRYSTAL_COOLDOWN_SECONDS = 60;
 
     // Cargo full message from crew
     private static final String CARGO_FULL_CREW_MESSAGE =
             "Your crewmate on the salvaging hook cannot salvage as the cargo hold is full.";
 
-    private int gameTickCounter = 0;
-    private Instant lastCrewXpChatTime = null;
-    private Instant lastSailingXpTime = null;
-    private Instant lastCrystalHarvestTime = null;
+    // Crew XP line from Sailing
+    private static final String CREW_XP_MESSAGE =
+            "You gain some experience by watching your crew work.";
 
-    private boolean hadRecentCrewXpChat()
-    {
-        if (lastCrewXpChatTime == null)
-        {
-            return false;
-        }
+    // Overhead text of a crewmate landing a hook
+    private static final String CREW_HOOK_OVERHEAD = "Managed to hook some salvage";
 
-        long seconds = Duration.between(lastCrewXpChatTime, Instant.now()).getSeconds();
-        return seconds <= 2;
-    }
+    // Crystal extractor ready again
+    private static final String CRYSTAL_READY_MESSAGE = "Your crystal extractor's cooldown is over.";
 
-    // Animations we treat as "salvaging-related"
-    private static final Set<Integer> SALVAGE_ANIMS = ImmutableSet.of(
-            13576,
-            13577,
-            13583,
-            13584,
-            13599  // main salvaging / hauling anim
-    );
+    // Timers on the timer wheel, one per thing that can expire
+    private static final int BOAT_TIMER = 0;             // no sailing xp for a whole window: off the boat
+    private static final int CRYSTAL_TIMER = 1;          // cooldown over of a crystal extractor we haven't seen
+    private static final int CREW_IDLE_TIMER = 2;        // + crew slot: crewmate stopped salvaging a while ago
+    private static final int FACILITY_TIMER = CREW_IDLE_TIMER + SalvageCrewTable.CAPACITY; // + facility slot: cooldown over
+    private static final int TIMERS = FACILITY_TIMER + SalvageFacilityRegistry.CAPACITY;
 
-    // All possible crew names we care about
-    private static final Set<String> CREW_NAMES = Set.of(
-            "Jobless Jim",
-            "Ex-Captain Siad",
-            "Adventurer Ada",
-            "Cabin Boy Jenkins",
-            "Oarswoman Olga",
-            "Jittery Jim",
-            "Bosun Zarah",
-            "Jolly Jim",
-            "Spotter Virginia",
-            "Sailor Jakob"
-    );
+    // ::salvageperf writes the perf report, ::salvageperf reset starts it over
+    private static final String PERF_COMMAND = "salvageperf";
 
-    // Cargo hold widget ids
-    private static final int CARGOHOLD_GROUP_ID   = 943;
-    private static final int CARGOHOLD_USED_CHILD = 4;
-    private static final int CARGOHOLD_CAP_CHILD  = 5;
-    private static final int CARGOHOLD_ITEMS_CHILD = 8;
+    // account hash while logged out
+    private static final long NO_ACCOUNT = -1;
+
+    // Every game message we care about, matched in one pass over the raw text;
+    // not private: SalvageChatMatcherTest runs known lines through it
+    static final SalvageChatMatcher CHAT_MATCHER = SalvageChatMatcher.builder()
+            .exact(CREW_XP_MESSAGE, SalvageChatEvent.CREW_XP)
+            .exact(CARGO_FULL_CREW_MESSAGE, SalvageChatEvent.CARGO_FULL_CREW)
+            .exact(CRYSTAL_MESSAGE, SalvageChatEvent.CRYSTAL_HARVESTED)
+            // generic cargo full detection (other messages mentioning cargo full)
+            .containsAll(SalvageChatEvent.CARGO_FULL, "cargo hold", "full")
+            .build();
+
+    private final TickClock clock = new TickClock();
+    private final SalvageTimerWheel timers = new SalvageTimerWheel(TIMERS, this::timerExpired);
+    private long lastCrewXpChatTick = TickClock.NEVER;
+
+    private boolean hadRecentCrewXpChat()
+    {
+        return clock.ticksSince(lastCrewXpChatTick) <= CREW_XP_WINDOW_TICKS;
+    }
 
     @Inject
     private Client client;
@@ -111,7 +119,37 @@ public class SalvagingPlugin extends Plugin
     private OverlayManager overlayManager;
 
     @Inject
-    private SalvagingConfig config;
+    private Notifier notifier;
+
+    @Inject
+    private ClientToolbar clientToolbar;
+
+    @Inject
+    private ScheduledExecutorService executor;
+
+    @Inject
+    private SalvageConfigCache configCache;
+
+    @Inject
+    private SalvageCargoTracker cargo;
+
+    @Inject
+    private SalvageEventRecorder recorder;
+
+    @Inject
+    private SalvageJournal journal;
+
+    @Inject
+    private SalvageSessionStats stats;
+
+    @Inject
+    private SalvageStatsWorker worker;
+
+    @Inject
+    private SalvagePriceCache prices;
+
+    @Inject
+    private SalvagePerfCounters perf;
 
     @Inject
     private SalvagingOverlay statusOverlay;
@@ -125,80 +163,67 @@ public class SalvagingPlugin extends Plugin
     @Inject
     private SalvageTimingOverlay timingOverlay;
 
-    // --------- state ---------
-    @Getter
-    private final Map<Actor, Boolean> crewSalvaging = new HashMap<>();
+    @Inject
+    private SalvageYieldOverlay yieldOverlay;
 
-    @Getter
-    private final Map<Actor, Integer> crewIdleTicks = new HashMap<>();
+    @Inject
+    private SalvageHudOverlay hudOverlay;
 
-    @Getter
-    private final Set<Actor> crewmates = new java.util.HashSet<>();
+    @Inject
+    private SalvagePerfOverlay perfOverlay;
 
-    @Getter
-    private boolean onBoat = false;
+    @Inject
+    private SalvagePanel panel;
 
-    @Getter
-    private boolean active;       // "any salvaging animation"
+    private NavigationButton navigationButton;
+    private boolean navigationShown = false;
 
-    @Getter
-    private boolean salvaging;    // specifically animation 13599
+    // account the session journal belongs to, NO_ACCOUNT while none is open
+    private long journalAccount = NO_ACCOUNT;
 
-    @Getter
-    private boolean statusKnown;
+    // --------- client thread state ---------
+    // Only what the handlers need to classify events lives here; the session
+    // stats are kept by SalvageSessionStats on the stats worker.
 
-    private int cargoUsed = 0;
-    private int cargoCapacity = 0;
+    private final SalvageCrewRoster roster = new SalvageCrewRoster();
+    private final SalvageCrewTable crew = new SalvageCrewTable();
+    private final SalvageFacilityRegistry facilities = new SalvageFacilityRegistry();
 
     @Getter
-    private boolean cargoFull = false;
+    private boolean onBoat = false;
 
-    private static class CrewStats
-    {
-        int count;
-        Instant first;
-        Instant last;
-    }
+    @Getter
+    private SalvageAnimation playerActivity = SalvageAnimation.IDLE;
 
-    private final Map<String, CrewStats> crewStats = new HashMap<>();
+    @Getter
+    private boolean statusKnown;
 
-    private int crewTotalSalvages = 0;
-    private double crewAvgIntervalSeconds = 0.0;
-    private Instant lastCrewSalvageTime = null;
+    private long lastHaulStartTick = TickClock.NEVER;
 
-    // --------- animation / crew helpers ---------
+    private final SalvageCargoTracker.YieldSink yieldSink = this::postYield;
 
-    private boolean isAnimationSalvaging(int anim)
+    /**
+     * The latest overlay snapshot, published by the stats worker.
+     */
+    SalvageSnapshot getSnapshot()
     {
-        return SALVAGE_ANIMS.contains(anim);
+        return stats.getSnapshot();
     }
 
-    private boolean isCrewmateName(String name)
-    {
-        if (name == null)
-        {
-            return false;
-        }
-
-        String clean = Text.removeTags(name).trim();
-        return CREW_NAMES.contains(clean);
-    }
+    // --------- animation / crew helpers ---------
 
-    private boolean isMyCrew(NPC npc)
+    /**
+     * Crew table slot of the given actor, or -1 if it isn't one of our tracked crewmates.
+     */
+    private int crewSlotOf(Actor actor)
     {
-        if (npc == null)
-        {
-            return false;
-        }
-
-        String raw = npc.getName();
-        if (raw == null)
+        if (!(actor instanceof NPC))
         {
-            return false;
+            return -1;
         }
 
-        String name = Text.removeTags(raw).trim();
-        return CREW_NAMES.contains(name);
+        NPC npc = (NPC) actor;
+        return crew.find(npc.getIndex(), npc.getWorldView().getId());
     }
 
     // --------- config ---------
@@ -214,11 +239,25 @@ public class SalvagingPlugin extends Plugin
     @Override
     protected void startUp()
     {
+        perf.clear();
+        // config may have changed while we weren't listening
+        configCache.refresh();
         resetAllStats();
+        // enabled while logged in: there won't be a login to open the journal on
+        if (client.getGameState() == GameState.LOGGED_IN)
+        {
+            openJournal(client.getAccountHash());
+        }
+        recorder.startIfEnabled(clock.now());
+        worker.start();
         overlayManager.add(statusOverlay);
         overlayManager.add(cargoOverlay);
         overlayManager.add(crewOverlay);
         overlayManager.add(timingOverlay);
+        overlayManager.add(yieldOverlay);
+        overlayManager.add(hudOverlay);
+        overlayManager.add(perfOverlay);
+        updateNavigation();
     }
 
     @Override
@@ -228,258 +267,290 @@ public class SalvagingPlugin extends Plugin
         overlayManager.remove(cargoOverlay);
         overlayManager.remove(crewOverlay);
         overlayManager.remove(timingOverlay);
+        overlayManager.remove(yieldOverlay);
+        overlayManager.remove(hudOverlay);
+        overlayManager.remove(perfOverlay);
+        removeNavigation();
+        panel.stop();
+        worker.stop();
+        recorder.stop(stats.getSnapshot());
+        journal.close();
+        journalAccount = NO_ACCOUNT;
         resetAllStats();
+        prices.clear();
     }
 
+    /**
+     * Forgets everything, session stats included. Only call while the stats worker is stopped.
+     */
     private void resetAllStats()
     {
-        active = false;
-        salvaging = false;
-        statusKnown = false;
-
-        cargoUsed = 0;
-        cargoCapacity = 0;
-        cargoFull = false;
+        resetTransientState();
+        cargo.reset();
+        stats.reset();
+        // nothing holds a tick from before any more; the journal restored next
+        // sets the clock to its own last tick, whichever account it was
+        clock.reset();
+        timers.reset();
+    }
 
-        crewStats.clear();
-        crewTotalSalvages = 0;
-        crewAvgIntervalSeconds = 0.0;
-        lastCrewSalvageTime = null;
+    /**
+     * Forgets what we know about the world (activity, boat, crew on screen), but keeps
+     * the session stats, which live on across hops and logouts through the journal.
+     */
+    private void resetTransientState()
+    {
+        playerActivity = SalvageAnimation.IDLE;
+        statusKnown = false;
 
-        lastSailingXpTime = null;
-        lastCrewXpChatTime = null;
-        lastCrystalHarvestTime = null;
+        timers.clear();
+        lastCrewXpChatTick = TickClock.NEVER;
+        lastHaulStartTick = TickClock.NEVER;
 
-        gameTickCounter = 0;
         onBoat = false;
 
-        crewmates.clear();
-        crewSalvaging.clear();
-        crewIdleTicks.clear();
+        crew.clear();
+        facilities.clear();
+        worker.post(SalvageSessionStats.FACILITY, clock.now(), -1, -1, 0, 0);
     }
 
-    // --------- helpers ----------
+    // --------- side panel ---------
 
-    private void updateOnBoatFlag()
+    /**
+     * Adds or removes the side panel's button to match the config.
+     */
+    private void updateNavigation()
     {
-        if (lastSailingXpTime == null)
+        if (!configCache.get().isShowSidePanel())
         {
-            onBoat = false;
+            removeNavigation();
             return;
         }
-
-        int windowMinutes = SAILING_XP_WINDOW_MINUTES;
-
-        if (windowMinutes <= 0)
+        if (navigationShown)
         {
-            onBoat = true;
             return;
         }
 
-        Duration since = Duration.between(lastSailingXpTime, Instant.now());
-        onBoat = since.toMinutes() < windowMinutes;
-    }
-
-    private void recomputeCargoFull()
-    {
-        int max = getCargoMax();
-        if (max > 0)
+        if (navigationButton == null)
         {
-            cargoFull = cargoUsed >= max;
+            navigationButton = NavigationButton.builder()
+                    .tooltip("Salvaging")
+                    .icon(SalvagePanel.icon())
+                    .priority(7)
+                    .panel(panel)
+                    .build();
         }
-        // if we don't know max, cargoFull can only be forced true by chat
+        clientToolbar.addNavigation(navigationButton);
+        navigationShown = true;
     }
 
-    private void updateCargoFromWidget()
+    private void removeNavigation()
     {
-        Widget universe = client.getWidget(CARGOHOLD_GROUP_ID, 0);
-        if (universe == null || universe.isHidden())
+        if (navigationShown)
         {
-            return;
+            clientToolbar.removeNavigation(navigationButton);
+            navigationShown = false;
         }
+    }
 
-        boolean parsedText = false;
-
-        Widget usedWidget = client.getWidget(CARGOHOLD_GROUP_ID, CARGOHOLD_USED_CHILD);
-        Widget capWidget  = client.getWidget(CARGOHOLD_GROUP_ID, CARGOHOLD_CAP_CHILD);
+    // --------- session journal ---------
 
-        if (usedWidget != null && capWidget != null)
-        {
-            try
-            {
-                int used = Integer.parseInt(Text.removeTags(usedWidget.getText()).trim());
-                int cap  = Integer.parseInt(Text.removeTags(capWidget.getText()).trim());
-
-                if (cap > 0)
-                {
-                    cargoUsed = used;
-                    cargoCapacity = cap;
-                    parsedText = true;
-                }
-            }
-            catch (NumberFormatException ignored)
-            {
-                // fall back to counting items
-            }
-        }
+    /**
+     * Opens the account's journal and restores the session in it. Only call while
+     * the stats worker is stopped and the stats are reset.
+     */
+    private void openJournal(long accountHash)
+    {
+        journalAccount = accountHash;
+        journal.open(accountHash);
+        long lastTick = journal.replay(this::restoreSessionRecord);
+        finishSessionRestore(lastTick);
+    }
 
-        Widget itemsContainer = client.getWidget(CARGOHOLD_GROUP_ID, CARGOHOLD_ITEMS_CHILD);
-        if (itemsContainer != null)
+    /**
+     * On login: swaps in the journal of the account that logged in, unless it is
+     * already open. The stats so far belonged to the previous account (or to none),
+     * so they are dropped for the restored ones.
+     */
+    private void switchJournal(long accountHash)
+    {
+        if (accountHash == NO_ACCOUNT || accountHash == journalAccount)
         {
-            int sum = 0;
-
-            Widget[] children = itemsContainer.getDynamicChildren();
-            if (children == null)
-            {
-                children = itemsContainer.getChildren();
-            }
-
-            if (children != null)
-            {
-                for (Widget child : children)
-                {
-                    sum += child.getItemQuantity();
-                }
-            }
-
-            if (sum > 0)
-            {
-                cargoUsed = sum;
-
-                if (!parsedText && cargoCapacity == 0)
-                {
-                    int override = config.cargoCapacityOverride();
-                    if (override > 0)
-                    {
-                        cargoCapacity = override;
-                    }
-                }
-            }
+            return;
         }
 
-        recomputeCargoFull();
+        worker.stop();
+        // a trace has to start with the journal it is replayed on top of
+        recorder.stop(stats.getSnapshot());
+        journal.close();
+        resetAllStats();
+        openJournal(accountHash);
+        recorder.startIfEnabled(clock.now());
+        worker.start();
     }
 
-    // --------- getters for overlays ----------
-
-    int getCargoUsed()
+    /**
+     * Applies one journal record to the session stats; also used by the trace replay.
+     * Only call while the stats worker is stopped.
+     */
+    void restoreSessionRecord(long tick, int type, int crewId, int value)
     {
-        return cargoUsed;
+        stats.restoreRecord(tick, type, crewId, value);
     }
 
-    int getCargoMax()
+    void finishSessionRestore(long lastTick)
     {
-        int override = config.cargoCapacityOverride();
-        if (override > 0)
-        {
-            return override;
-        }
-        return cargoCapacity;
+        clock.restore(lastTick);
+        stats.finishRestore(lastTick);
+        cargo.restore(stats.getJournalCargoUsed(), stats.getJournalCargoCapacity(), stats.isJournalCargoFull());
     }
 
+    // --------- helpers ----------
+
     /**
-     * Safe cargo-full check for overlays: uses numbers if we know them,
-     * otherwise falls back to the boolean flag.
+     * Called by the timer wheel, on the tick a timer runs out.
      */
-    public boolean isCargoReallyFull()
+    private void timerExpired(int timer, long tick)
     {
-        int max = getCargoMax();
-        if (max > 0)
+        if (timer == BOAT_TIMER)
+        {
+            onBoat = false;
+        }
+        else if (timer == CRYSTAL_TIMER || timer >= FACILITY_TIMER)
         {
-            return cargoUsed >= max;
+            // only extractors have a cooldown
+            if (configCache.get().isNotifyCrystalReady())
+            {
+                notifier.notify(CRYSTAL_READY_MESSAGE);
+            }
+        }
+        else
+        {
+            crew.markIdle(timer - CREW_IDLE_TIMER);
         }
-        return cargoFull;
     }
 
-    Map<String, Integer> getCrewCatchCounts()
+    /**
+     * Counts a use of a facility and tells the stats, restarting its cooldown timer if it has one.
+     */
+    private void useFacility(int slot)
     {
-        Map<String, Integer> out = new HashMap<>();
-        for (Map.Entry<String, CrewStats> e : crewStats.entrySet())
+        long now = clock.now();
+        facilities.use(slot, now);
+        postFacility(slot);
+
+        int cooldown = facilities.getKind(slot).getCooldownTicks();
+        if (cooldown > 0)
         {
-            out.put(e.getKey(), e.getValue().count);
+            timers.schedule(FACILITY_TIMER + slot, now + cooldown);
         }
-        return out;
     }
 
-    double getCrewRatePerHour(String name)
+    /**
+     * Counts a use of the salvaging hook nearest to the actor, if we know of any.
+     */
+    private void useNearestHook(Actor actor)
     {
-        CrewStats cs = crewStats.get(name);
-        if (cs == null || cs.count <= 1 || cs.first == null)
+        LocalPoint location = actor.getLocalLocation();
+        if (location == null)
         {
-            return 0;
+            return;
         }
 
-        Duration d = Duration.between(cs.first, Instant.now());
-        double hours = d.toMillis() / 3_600_000.0;
-        if (hours <= 0)
+        int slot = facilities.nearest(SalvageFacilityKind.SALVAGING_HOOK, location.getX(), location.getY());
+        if (slot >= 0)
         {
-            return 0;
+            useFacility(slot);
         }
-        return cs.count / hours;
     }
 
-    public int getCrewTotalSalvages()
+    private void postFacility(int slot)
     {
-        return crewTotalSalvages;
+        long lastUse = facilities.getLastUseTick(slot);
+        worker.post(SalvageSessionStats.FACILITY, clock.now(), slot, facilities.getKind(slot).ordinal(),
+                facilities.getUses(slot), lastUse == TickClock.NEVER ? -1 : (int) (clock.now() - lastUse));
     }
 
-    public double getCrewAverageIntervalSeconds()
-    {
-        return crewAvgIntervalSeconds > 0.0 ? crewAvgIntervalSeconds : 0.0;
-    }
-
-    public int getCrewSecondsSinceLastSalvage()
+    /**
+     * Restarts the crewmate's idle timer, or stops it while they are salvaging.
+     */
+    private void restartIdleTimer(int slot, boolean working)
     {
-        if (lastCrewSalvageTime == null)
+        if (working)
         {
-            return -1;
+            timers.cancel(CREW_IDLE_TIMER + slot);
+        }
+        else
+        {
+            timers.schedule(CREW_IDLE_TIMER + slot, clock.now() + SalvageCrewTable.IDLE_TICKS);
         }
-        return (int) Duration.between(lastCrewSalvageTime, Instant.now()).getSeconds();
     }
 
-    // -------- crystal cooldown helpers --------
-
     /**
-     * Returns remaining crystal cooldown in seconds:
-     * -1 if we never saw the message yet,
-     *  0 if it's ready,
-     * >0 while on cooldown.
+     * Hands this tick's state to the stats worker: the cargo numbers if they changed,
+     * then the live player and crew state. The worker publishes the snapshot from it.
      */
-    public int getCrystalCooldownSecondsRemaining()
+    private void postTick()
     {
-        if (lastCrystalHarvestTime == null)
+        long now = clock.now();
+
+        cargo.drainYield(yieldSink);
+
+        if (cargo.pollChanged())
         {
-            return -1;
+            int flags = (cargo.isFull() ? SalvageSessionStats.CARGO_FULL : 0)
+                    | (cargo.isReallyFull() ? SalvageSessionStats.CARGO_REALLY_FULL : 0);
+            worker.post(SalvageSessionStats.CARGO, now, cargo.getUsed(), cargo.getMax(), cargo.getCapacity(), flags);
+            worker.post(SalvageSessionStats.YIELD_PENDING, now, cargo.getPendingHookTotal(), 0, 0, 0);
         }
 
-        long elapsed = Duration.between(lastCrystalHarvestTime, Instant.now()).getSeconds();
-        long remaining = CRYSTAL_COOLDOWN_SECONDS - elapsed;
-
-        return (int) Math.max(0, remaining);
+        int flags = (onBoat ? SalvageSessionStats.ON_BOAT : 0)
+                | (statusKnown ? SalvageSessionStats.STATUS_KNOWN : 0);
+        worker.post(SalvageSessionStats.TICK, now, flags, playerActivity.ordinal(), crew.size(), crew.salvagingCount());
     }
 
-    public boolean isCrystalOnCooldown()
+    private void postYield(int itemId, int quantity, int source)
     {
-        int left = getCrystalCooldownSecondsRemaining();
-        return left > 0;
+        // priced here: the item manager is client thread only, and this keeps lookups off the overlays
+        worker.post(SalvageSessionStats.ITEM_YIELD, clock.now(), itemId, quantity, source, prices.price(itemId));
     }
 
     // --------- event handlers ----------
+    // Each handler only times the handle* method below it into the perf counters.
 
     @Subscribe
     public void onStatChanged(StatChanged event)
+    {
+        long start = perf.start();
+        handleStatChanged(event);
+        perf.stop(SalvagePerfProbe.STAT_CHANGED, start);
+    }
+
+    private void handleStatChanged(StatChanged event)
     {
         if (event.getSkill() != Skill.SAILING)
         {
             return;
         }
 
-        lastSailingXpTime = Instant.now();
+        recorder.recordSailingXp();
+
+        onBoat = true;
+        timers.schedule(BOAT_TIMER, clock.now() + SAILING_XP_WINDOW_TICKS);
     }
 
     @Subscribe
     public void onAnimationChanged(AnimationChanged event)
     {
+        long start = perf.start();
+        handleAnimationChanged(event);
+        perf.stop(SalvagePerfProbe.ANIMATION_CHANGED, start);
+    }
+
+    private void handleAnimationChanged(AnimationChanged event)
+    {
+        recorder.recordAnimation(event);
+
         Actor actor = event.getActor();
         if (actor == null)
         {
@@ -492,31 +563,34 @@ public class SalvagingPlugin extends Plugin
             return;
         }
 
-        int anim = actor.getAnimation();
+        SalvageAnimation activity = SalvageAnimation.of(actor.getAnimation());
 
         // Player logic
         if (actor == client.getLocalPlayer())
         {
-            boolean nowActive = SALVAGE_ANIMS.contains(anim);
+            if (activity == SalvageAnimation.HAULING && playerActivity != SalvageAnimation.HAULING)
+            {
+                long now = clock.now();
+                if (lastHaulStartTick != TickClock.NEVER && onBoat)
+                {
+                    worker.post(SalvageSessionStats.HAUL_CYCLE, now, (int) (now - lastHaulStartTick), 0, 0, 0);
+                }
+                lastHaulStartTick = now;
+                cargo.addPlayerHaul();
+                useNearestHook(actor);
+            }
 
-            active = nowActive;
+            playerActivity = activity;
             statusKnown = true;
-            salvaging = (anim == 13599);
-
-            updateOnBoatFlag();
         }
         // Crew logic
-        else if (crewmates.contains(actor))
+        else
         {
-            if (isAnimationSalvaging(anim))
-            {
-                crewSalvaging.put(actor, true);
-                crewIdleTicks.put(actor, 0);
-            }
-            else
+            int slot = crewSlotOf(actor);
+            if (slot >= 0)
             {
-                crewSalvaging.put(actor, false);
-                crewIdleTicks.put(actor, 0);
+                crew.setSalvaging(slot, activity.isWorking());
+                restartIdleTimer(slot, activity.isWorking());
             }
         }
     }
@@ -524,205 +598,372 @@ public class SalvagingPlugin extends Plugin
     @Subscribe
     public void onOverheadTextChanged(OverheadTextChanged event)
     {
-        Actor actor = event.getActor();
-        if (!(actor instanceof NPC))
-        {
-            return;
-        }
+        long start = perf.start();
+        handleOverheadTextChanged(event);
+        perf.stop(SalvagePerfProbe.OVERHEAD_TEXT_CHANGED, start);
+    }
 
-        NPC npc = (NPC) actor;
+    private void handleOverheadTextChanged(OverheadTextChanged event)
+    {
+        recorder.recordOverheadText(event);
 
-        // Only our crew, on our world view
-        if (!isMyCrew(npc)
-                || npc.getWorldView() != client.getLocalPlayer().getWorldView())
+        // Only our tracked crew; everyone else is rejected before looking at any text
+        Actor actor = event.getActor();
+        int slot = crewSlotOf(actor);
+        if (slot < 0)
         {
             return;
         }
 
-        String rawText = event.getOverheadText();
-        if (rawText == null)
+        // ...and only on our world view
+        if (actor.getWorldView() != client.getLocalPlayer().getWorldView())
         {
             return;
         }
 
-        String text = Text.removeTags(rawText);
-
-        if (!text.startsWith("Managed to hook some salvage"))
+        if (!onBoat || !hadRecentCrewXpChat())
         {
             return;
         }
 
-        if (!onBoat || !hadRecentCrewXpChat())
+        String rawText = event.getOverheadText();
+        if (rawText == null || !SalvageChatMatcher.startsWithIgnoringTags(rawText, CREW_HOOK_OVERHEAD))
         {
             return;
         }
 
-        String crewName = Text.removeTags(npc.getName()).trim();
-        CrewStats cs = crewStats.computeIfAbsent(crewName, k -> new CrewStats());
-        Instant now = Instant.now();
+        worker.post(SalvageSessionStats.HOOK, clock.now(), crew.getCrewId(slot), 0, 0, 0);
+        cargo.addHook(crew.getCrewId(slot));
+        useNearestHook(actor);
+    }
 
-        cs.count++;
-        if (cs.first == null)
-        {
-            cs.first = now;
-        }
-        cs.last = now;
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event)
+    {
+        long start = perf.start();
+        handleWidgetLoaded(event);
+        perf.stop(SalvagePerfProbe.WIDGET_LOADED, start);
+    }
 
-        crewTotalSalvages++;
+    private void handleWidgetLoaded(WidgetLoaded event)
+    {
+        recorder.recordWidgetLoaded(event);
+        cargo.onWidgetLoaded(event);
+    }
 
-        if (lastCrewSalvageTime != null)
-        {
-            double delta = Duration.between(lastCrewSalvageTime, now).toMillis() / 1000.0;
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event)
+    {
+        long start = perf.start();
+        handleWidgetClosed(event);
+        perf.stop(SalvagePerfProbe.WIDGET_CLOSED, start);
+    }
 
-            if (crewAvgIntervalSeconds <= 0.0)
-            {
-                crewAvgIntervalSeconds = delta;
-            }
-            else
-            {
-                crewAvgIntervalSeconds =
-                        (crewAvgIntervalSeconds * (crewTotalSalvages - 1) + delta) / crewTotalSalvages;
-            }
-        }
+    private void handleWidgetClosed(WidgetClosed event)
+    {
+        recorder.recordWidgetClosed(event);
+        cargo.onWidgetClosed(event);
+    }
 
-        lastCrewSalvageTime = now;
+    @Subscribe
+    public void onItemContainerChanged(ItemContainerChanged event)
+    {
+        long start = perf.start();
+        handleItemContainerChanged(event);
+        perf.stop(SalvagePerfProbe.ITEM_CONTAINER_CHANGED, start);
+    }
 
-        int max = getCargoMax();
-        if (max > 0)
-        {
-            cargoUsed = Math.min(cargoUsed + 1, max);
-        }
-        else
-        {
-            cargoUsed++;
-        }
+    private void handleItemContainerChanged(ItemContainerChanged event)
+    {
+        cargo.onItemContainerChanged(event);
+    }
 
-        recomputeCargoFull();
+    @Subscribe
+    public void onGameTick(GameTick tick)
+    {
+        long start = perf.start();
+        handleGameTick(tick);
+        perf.stop(SalvagePerfProbe.GAME_TICK, start);
+    }
+
+    private void handleGameTick(GameTick tick)
+    {
+        recorder.recordGameTick();
+        clock.advance();
+
+        // leaving the boat, crew going idle, the crystal cooldown
+        timers.advanceTo(clock.now());
+
+        prices.refreshIfDue();
+
+        postTick();
     }
 
     @Subscribe
-    public void onWidgetLoaded(WidgetLoaded event)
+    public void onChatMessage(ChatMessage event)
+    {
+        long start = perf.start();
+        handleChatMessage(event);
+        perf.stop(SalvagePerfProbe.CHAT_MESSAGE, start);
+    }
+
+    private void handleChatMessage(ChatMessage event)
     {
-        if (event.getGroupId() == CARGOHOLD_GROUP_ID)
+        recorder.recordChat(event);
+
+        if (event.getType() != ChatMessageType.GAMEMESSAGE
+                && event.getType() != ChatMessageType.SPAM
+                && event.getType() != ChatMessageType.MESBOX)
         {
-            updateCargoFromWidget();
+            return;
+        }
+
+        switch (CHAT_MATCHER.match(event.getMessage()))
+        {
+            case CREW_XP:
+                lastCrewXpChatTick = clock.now();
+                break;
+            case CARGO_FULL_CREW:
+            case CARGO_FULL:
+                cargo.markFull();
+                break;
+            case CRYSTAL_HARVESTED:
+                worker.post(SalvageSessionStats.CRYSTAL, clock.now(), 0, 0, 0, 0);
+                // the message doesn't say which extractor, so it goes to the one that was ready first
+                int extractor = facilities.nextOffCooldown(SalvageFacilityKind.CRYSTAL_EXTRACTOR, clock.now());
+                if (extractor >= 0)
+                {
+                    useFacility(extractor);
+                }
+                else
+                {
+                    timers.schedule(CRYSTAL_TIMER,
+                            clock.now() + SalvageFacilityKind.CRYSTAL_EXTRACTOR.getCooldownTicks());
+                }
+                break;
+            default:
+                break;
         }
     }
 
     @Subscribe
-    public void onGameTick(GameTick tick)
+    public void onNpcSpawned(NpcSpawned event)
     {
-        gameTickCounter++;
+        long start = perf.start();
+        handleNpcSpawned(event);
+        perf.stop(SalvagePerfProbe.NPC_SPAWNED, start);
+    }
 
-        updateOnBoatFlag();
+    private void handleNpcSpawned(NpcSpawned event)
+    {
+        recorder.recordNpcSpawned(event);
 
-        // Track idle ticks for crew
-        for (Actor crew : crewmates)
+        NPC npc = event.getNpc();
+
+        // Only our crew, same world view as us
+        if (npc.getWorldView() != client.getLocalPlayer().getWorldView())
         {
-            int currentIdle = crewIdleTicks.getOrDefault(crew, 0);
-            boolean working = crewSalvaging.getOrDefault(crew, false);
+            return;
+        }
 
-            if (!working && currentIdle < 10)
-            {
-                crewIdleTicks.put(crew, currentIdle + 1);
-            }
+        int crewId = roster.resolve(npc);
+        if (crewId < 0)
+        {
+            return;
         }
 
-        Widget universe = client.getWidget(CARGOHOLD_GROUP_ID, 0);
-        if (universe != null && !universe.isHidden())
+        int slot = crew.add(npc.getIndex(), npc.getWorldView().getId(), crewId);
+        if (slot >= 0)
         {
-            updateCargoFromWidget();
+            // not salvaging yet
+            restartIdleTimer(slot, false);
         }
     }
 
     @Subscribe
-    public void onChatMessage(ChatMessage event)
+    public void onNpcDespawned(NpcDespawned event)
     {
-        if (event.getType() != ChatMessageType.GAMEMESSAGE
-                && event.getType() != ChatMessageType.SPAM
-                && event.getType() != ChatMessageType.MESBOX)
+        long start = perf.start();
+        handleNpcDespawned(event);
+        perf.stop(SalvagePerfProbe.NPC_DESPAWNED, start);
+    }
+
+    private void handleNpcDespawned(NpcDespawned event)
+    {
+        recorder.recordNpcDespawned(event);
+
+        int slot = crewSlotOf(event.getNpc());
+        if (slot >= 0)
         {
-            return;
+            crew.remove(slot);
+            timers.cancel(CREW_IDLE_TIMER + slot);
         }
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event)
+    {
+        long start = perf.start();
+        handleGameObjectSpawned(event);
+        perf.stop(SalvagePerfProbe.GAME_OBJECT_SPAWNED, start);
+    }
 
-        String clean = Text.removeTags(event.getMessage());
-        String msgLower = clean.toLowerCase();
+    private void handleGameObjectSpawned(GameObjectSpawned event)
+    {
+        GameObject object = event.getGameObject();
 
-        // crew XP line from Sailing
-        if (clean.equals("You gain some experience by watching your crew work."))
+        // Only our boat's facilities, same world view as us; whole scenes load
+        // before there is a local player
+        Player player = client.getLocalPlayer();
+        if (player == null || object.getWorldView() != player.getWorldView())
         {
-            lastCrewXpChatTime = Instant.now();
+            return;
         }
 
-        // Specific cargo-full line from crewmate
-        if (clean.equals(CARGO_FULL_CREW_MESSAGE))
+        recorder.recordObjectSpawned(object);
+
+        SalvageFacilityKind kind = facilities.resolve(client, object.getId());
+        if (kind == null)
         {
-            cargoFull = true;
-            int max = getCargoMax();
-            if (max > 0)
-            {
-                cargoUsed = max;
-            }
             return;
         }
 
-        // generic cargo full detection (other messages mentioning cargo full)
-        if (msgLower.contains("cargo hold") && msgLower.contains("full"))
+        LocalPoint location = object.getLocalLocation();
+        int slot = facilities.add(kind, object.getId(), object.getWorldView().getId(), object.getPlane(),
+                location.getX(), location.getY());
+        if (slot >= 0)
         {
-            cargoFull = true;
-            int max = getCargoMax();
-            if (max > 0)
-            {
-                cargoUsed = max;
-            }
+            postFacility(slot);
         }
+    }
 
-        // crystal extractor harvested
-        if (clean.equals(CRYSTAL_MESSAGE))
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event)
+    {
+        long start = perf.start();
+        handleGameObjectDespawned(event);
+        perf.stop(SalvagePerfProbe.GAME_OBJECT_DESPAWNED, start);
+    }
+
+    private void handleGameObjectDespawned(GameObjectDespawned event)
+    {
+        GameObject object = event.getGameObject();
+        LocalPoint location = object.getLocalLocation();
+        int slot = facilities.find(object.getId(), object.getWorldView().getId(), object.getPlane(),
+                location.getX(), location.getY());
+        if (slot >= 0)
         {
-            lastCrystalHarvestTime = Instant.now();
+            recorder.recordObjectDespawned(object);
+            facilities.remove(slot);
+            timers.cancel(FACILITY_TIMER + slot);
+            worker.post(SalvageSessionStats.FACILITY, clock.now(), slot, -1, 0, 0);
         }
     }
 
     @Subscribe
-    public void onNpcSpawned(NpcSpawned event)
+    public void onConfigChanged(ConfigChanged event)
     {
-        NPC npc = event.getNpc();
+        long start = perf.start();
+        handleConfigChanged(event);
+        perf.stop(SalvagePerfProbe.CONFIG_CHANGED, start);
+    }
 
-        // Only our named crew, same world view as us
-        if (!isCrewmateName(npc.getName())
-                || npc.getWorldView() != client.getLocalPlayer().getWorldView())
+    private void handleConfigChanged(ConfigChanged event)
+    {
+        if (!SalvagingConfig.GROUP.equals(event.getGroup()))
         {
             return;
         }
 
-        if (crewmates.add(npc))
+        // everything reads the config through this copy, so it is refreshed first
+        configCache.refresh();
+
+        if ("recordEventTrace".equals(event.getKey()) && !configCache.get().isRecordEventTrace())
+        {
+            // the handlers write the trace on the client thread; it is closed there too, after
+            // the worker caught up with the last recorded event
+            clientThread.invokeLater(() ->
+            {
+                worker.flush();
+                recorder.stop(stats.getSnapshot());
+            });
+        }
+        else if ("showSidePanel".equals(event.getKey()))
+        {
+            updateNavigation();
+        }
+        else if ("rateWindow".equals(event.getKey()))
+        {
+            // config changes can come from the UI thread; the worker only takes posts from the client thread
+            clientThread.invokeLater(() -> worker.post(SalvageSessionStats.REFRESH, clock.now(), 0, 0, 0, 0));
+        }
+        else if ("cargoCapacityOverride".equals(event.getKey()))
         {
-            crewSalvaging.put(npc, false);
-            crewIdleTicks.put(npc, 0);
+            // the cargo numbers are only posted when the tracker says they changed
+            clientThread.invokeLater(cargo::markConfigChanged);
         }
     }
 
     @Subscribe
-    public void onNpcDespawned(NpcDespawned event)
+    public void onGameStateChanged(GameStateChanged event)
     {
-        NPC npc = event.getNpc();
-        crewmates.remove(npc);
-        crewSalvaging.remove(npc);
-        crewIdleTicks.remove(npc);
+        long start = perf.start();
+        handleGameStateChanged(event);
+        perf.stop(SalvagePerfProbe.GAME_STATE_CHANGED, start);
     }
 
-    @Subscribe
-    public void onGameStateChanged(GameStateChanged event)
+    private void handleGameStateChanged(GameStateChanged event)
     {
+        recorder.recordGameState(event);
+
         switch (event.getGameState())
         {
             case LOGIN_SCREEN:
             case HOPPING:
-                resetAllStats();
+                resetTransientState();
+                // the trace starts with the journal, which the worker writes
+                worker.flush();
+                recorder.startIfEnabled(clock.now());
+                break;
+            case LOGGED_IN:
+                switchJournal(client.getAccountHash());
                 break;
             default:
                 break;
         }
     }
+
+    @Subscribe
+    public void onCommandExecuted(CommandExecuted event)
+    {
+        long start = perf.start();
+        handleCommandExecuted(event);
+        perf.stop(SalvagePerfProbe.COMMAND_EXECUTED, start);
+    }
+
+    private void handleCommandExecuted(CommandExecuted event)
+    {
+        if (!PERF_COMMAND.equalsIgnoreCase(event.getCommand()))
+        {
+            return;
+        }
+
+        String[] args = event.getArguments();
+        if (args.length > 0 && "reset".equalsIgnoreCase(args[0]))
+        {
+            perf.clear();
+            return;
+        }
+
+        // read here, it is only written on the client thread; the file is written off it
+        long dropped = worker.getDropped();
+        executor.execute(() ->
+        {
+            File report = perf.writeReport(dropped);
+            if (report != null)
+            {
+                log.info("salvaging perf report written to {}", report);
+            }
+        });
+    }
 }
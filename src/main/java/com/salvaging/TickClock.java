@@ -0,0 +1,78 @@
+package com.salvaging;
+
+/**
+ * Monotonic game-tick clock used for every timer, cooldown and rate in the plugin.
+ * Timestamps are plain tick numbers, so nothing here allocates.
+ */
+class TickClock
+{
+    static final int TICK_MILLIS = 600;
+
+    // Timestamp value meaning "never happened"
+    static final long NEVER = -1;
+
+    private long tick = 0;
+
+    long now()
+    {
+        return tick;
+    }
+
+    void advance()
+    {
+        tick++;
+    }
+
+    /**
+     * Starts the clock over, for when every timestamp taken from it has been dropped
+     * (another account's journal is about to be restored).
+     */
+    void reset()
+    {
+        tick = 0;
+    }
+
+    /**
+     * Moves the clock forward to a tick restored from the session journal; never moves it back.
+     */
+    void restore(long stamp)
+    {
+        tick = Math.max(tick, stamp);
+    }
+
+    /**
+     * Ticks elapsed since the given timestamp, or {@link Long#MAX_VALUE} if it is {@link #NEVER}.
+     */
+    long ticksSince(long stamp)
+    {
+        if (stamp == NEVER)
+        {
+            return Long.MAX_VALUE;
+        }
+        return tick - stamp;
+    }
+
+    static int secondsToTicks(int seconds)
+    {
+        // round up so a window is never shorter than asked for
+        return (int) ((seconds * 1000L + TICK_MILLIS - 1) / TICK_MILLIS);
+    }
+
+    static double ticksToSeconds(long ticks)
+    {
+        return ticks * (TICK_MILLIS / 1000.0);
+    }
+
+    static double ticksToHours(long ticks)
+    {
+        return ticks * (TICK_MILLIS / 3_600_000.0);
+    }
+
+    /**
+     * Whole seconds covered by the given ticks, rounded up (for countdowns).
+     */
+    static int ticksToSecondsCeil(long ticks)
+    {
+        return (int) ((ticks * TICK_MILLIS + 999) / 1000);
+    }
+}
@@ -0,0 +1,141 @@
+package com.salvaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.Client;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.gameval.InventoryID;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SalvageCargoTrackerTest
+{
+    private static final int SALVAGE = 1234;
+
+    private int capacityOverride = 0;
+
+    private SalvageConfigCache configCache;
+    private SalvageCargoTracker cargo;
+
+    @Before
+    public void setUp()
+    {
+        // nothing here reads the hold interface, so the client never answers
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) ->
+                {
+                    switch (method.getName())
+                    {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+
+        Injector injector = Guice.createInjector(binder ->
+        {
+            binder.bind(Client.class).toInstance(client);
+            binder.bind(SalvagingConfig.class).toInstance(new SalvagingConfig()
+            {
+                @Override
+                public int cargoCapacityOverride()
+                {
+                    return capacityOverride;
+                }
+            });
+        });
+
+        configCache = injector.getInstance(SalvageConfigCache.class);
+        cargo = injector.getInstance(SalvageCargoTracker.class);
+    }
+
+    @Test
+    public void capacityOverrideChangeIsPosted()
+    {
+        cargo.addHook(0);
+        cargo.addHook(1);
+        cargo.addHook(2);
+        assertTrue(cargo.pollChanged());
+        assertFalse(cargo.pollChanged());
+        assertEquals(0, cargo.getMax());
+        assertFalse(cargo.isFull());
+
+        capacityOverride = 3;
+        configCache.refresh();
+        cargo.markConfigChanged();
+
+        assertTrue(cargo.pollChanged());
+        assertEquals(3, cargo.getMax());
+        assertTrue(cargo.isFull());
+        assertTrue(cargo.isReallyFull());
+        assertFalse(cargo.pollChanged());
+    }
+
+    @Test
+    public void raisingTheOverrideIsPosted()
+    {
+        capacityOverride = 2;
+        configCache.refresh();
+        cargo.addHook(0);
+        cargo.addHook(0);
+        assertTrue(cargo.pollChanged());
+        assertTrue(cargo.isFull());
+
+        capacityOverride = 10;
+        configCache.refresh();
+        cargo.markConfigChanged();
+
+        assertTrue(cargo.pollChanged());
+        assertEquals(10, cargo.getMax());
+        assertFalse(cargo.isFull());
+    }
+
+    @Test
+    public void hooksBeforeTheFirstReadAreNotPending()
+    {
+        cargo.addHook(0);
+        cargo.addHook(1);
+        assertEquals(2, cargo.getPendingHookTotal());
+
+        // the hold already holds what those hooks brought up
+        cargo.onItemContainerChanged(hold(2));
+        assertEquals(0, cargo.getPendingHookTotal());
+
+        cargo.addHook(2);
+        cargo.onItemContainerChanged(hold(4));
+        assertEquals(0, cargo.getPendingHookTotal());
+
+        List<int[]> gains = new ArrayList<>();
+        cargo.drainYield((itemId, quantity, source) -> gains.add(new int[]{itemId, quantity, source}));
+        assertEquals(1, gains.size());
+        assertEquals(SALVAGE, gains.get(0)[0]);
+        assertEquals(2, gains.get(0)[1]);
+        assertEquals(2, gains.get(0)[2]);
+    }
+
+    private static ItemContainerChanged hold(int salvage)
+    {
+        Item[] items = new Item[8];
+        for (int i = 0; i < items.length; i++)
+        {
+            items[i] = i < salvage ? new Item(SALVAGE, 1) : new Item(-1, 0);
+        }
+
+        ItemContainer container = (ItemContainer) Proxy.newProxyInstance(ItemContainer.class.getClassLoader(),
+                new Class<?>[]{ItemContainer.class},
+                (proxy, method, args) -> method.getName().equals("getItems") ? items : null);
+        return new ItemContainerChanged(InventoryID.SAILING_BOAT_1_CARGOHOLD, container);
+    }
+}
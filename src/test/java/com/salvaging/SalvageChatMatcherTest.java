@@ -0,0 +1,77 @@
+package com.salvaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SalvageChatMatcherTest
+{
+    private static final SalvageChatMatcher MATCHER = SalvagingPlugin.CHAT_MATCHER;
+
+    @Test
+    public void knownLines()
+    {
+        assertEquals(SalvageChatEvent.CREW_XP,
+                MATCHER.match("You gain some experience by watching your crew work."));
+        assertEquals(SalvageChatEvent.CARGO_FULL_CREW,
+                MATCHER.match("Your crewmate on the salvaging hook cannot salvage as the cargo hold is full."));
+        assertEquals(SalvageChatEvent.CRYSTAL_HARVESTED,
+                MATCHER.match("Your crystal extractor has harvested a crystal mote!"));
+        assertEquals(SalvageChatEvent.CARGO_FULL,
+                MATCHER.match("You can't add that, your cargo hold is full."));
+    }
+
+    @Test
+    public void knownLinesWithColourTags()
+    {
+        assertEquals(SalvageChatEvent.CREW_XP,
+                MATCHER.match("<col=ef1020>You gain some experience by watching your crew work.</col>"));
+        assertEquals(SalvageChatEvent.CRYSTAL_HARVESTED,
+                MATCHER.match("Your <col=00ff00>crystal extractor</col> has harvested a crystal mote!"));
+        // tags split the keyword, and case is ignored
+        assertEquals(SalvageChatEvent.CARGO_FULL,
+                MATCHER.match("Your <col=ff0000>Cargo</col> hold is <col=ff0000>FULL</col>."));
+    }
+
+    @Test
+    public void otherLines()
+    {
+        assertEquals(SalvageChatEvent.NONE, MATCHER.match(null));
+        assertEquals(SalvageChatEvent.NONE, MATCHER.match(""));
+        assertEquals(SalvageChatEvent.NONE,
+                MATCHER.match("<col=ef1020>Your <col=ffffff>Rune platebody</col> has been repaired.</col>"));
+        // exact phrases are whole messages, and case sensitive
+        assertEquals(SalvageChatEvent.NONE,
+                MATCHER.match("You gain some experience by watching your crew work. Twice."));
+        assertEquals(SalvageChatEvent.NONE,
+                MATCHER.match("you gain some experience by watching your crew work."));
+        // only one of the keywords
+        assertEquals(SalvageChatEvent.NONE, MATCHER.match("The cargo hold is nearly empty."));
+    }
+
+    @Test
+    public void overlappingKeywords()
+    {
+        // "hers" only shows up through the failure links of "she" and "he"
+        SalvageChatMatcher matcher = SalvageChatMatcher.builder()
+                .containsAll(SalvageChatEvent.CARGO_FULL, "he", "hers")
+                .containsAll(SalvageChatEvent.CREW_XP, "she")
+                .build();
+
+        assertEquals(SalvageChatEvent.CARGO_FULL, matcher.match("ushers"));
+        assertEquals(SalvageChatEvent.CREW_XP, matcher.match("ushe"));
+        assertEquals(SalvageChatEvent.NONE, matcher.match("her"));
+    }
+
+    @Test
+    public void startsWithIgnoringTags()
+    {
+        assertTrue(SalvageChatMatcher.startsWithIgnoringTags("<col=ff0000>Managed</col> to hook some salvage!",
+                "Managed to hook"));
+        assertTrue(SalvageChatMatcher.startsWithIgnoringTags("Managed", "Managed"));
+        assertFalse(SalvageChatMatcher.startsWithIgnoringTags("<col=ff0000>Manag</col>", "Managed"));
+        assertFalse(SalvageChatMatcher.startsWithIgnoringTags("Mismanaged to hook", "Managed"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.salvaging;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SalvageIntervalHistogramTest
+{
+    private final SalvageIntervalHistogram histogram = new SalvageIntervalHistogram();
+
+    @Test
+    public void emptyIsZero()
+    {
+        assertEquals(0, histogram.percentileTicks(0.5), 0);
+        histogram.record(-3);
+        assertEquals(0, histogram.count());
+    }
+
+    @Test
+    public void shortIntervalsAreExact()
+    {
+        for (int ticks = 0; ticks < 16; ticks++)
+        {
+            histogram.record(ticks);
+        }
+
+        assertEquals(16, histogram.count());
+        assertEquals(0, histogram.percentileTicks(0), 0);
+        assertEquals(7, histogram.percentileTicks(0.5), 0);
+        assertEquals(15, histogram.percentileTicks(1), 0);
+    }
+
+    @Test
+    public void uniformOneToHundred()
+    {
+        for (int ticks = 1; ticks <= 100; ticks++)
+        {
+            histogram.record(ticks);
+        }
+
+        // the middle of the bucket the ranked value is in
+        assertEquals(50.5, histogram.percentileTicks(0.5), 0);
+        assertEquals(89.5, histogram.percentileTicks(0.9), 0);
+        assertEquals(97.5, histogram.percentileTicks(0.99), 0);
+        // never above the largest interval seen
+        assertEquals(100, histogram.percentileTicks(1), 0);
+        assertEquals(100, histogram.maxTicks());
+    }
+
+    @Test
+    public void withinSixPercentOfTheValue()
+    {
+        for (long ticks = 16; ticks < 1_000_000; ticks = ticks * 5 / 4 + 1)
+        {
+            histogram.clear();
+            histogram.record(ticks);
+            histogram.record(ticks * 10);
+            assertEquals(ticks, histogram.percentileTicks(0.5), ticks * 0.0625);
+        }
+    }
+
+    @Test
+    public void oneStalledHookLeavesTheMedian()
+    {
+        for (int i = 0; i < 99; i++)
+        {
+            histogram.record(10);
+        }
+        histogram.record(5_000);
+
+        assertEquals(10, histogram.percentileTicks(0.5), 0);
+        assertEquals(10, histogram.percentileTicks(0.99), 0);
+        assertEquals(5_000, histogram.maxTicks());
+    }
+
+    @Test
+    public void hugeIntervalsAreClamped()
+    {
+        // into the top bucket, with the largest intervals that still fit it
+        histogram.record(1L << 40);
+        SalvageIntervalHistogram top = new SalvageIntervalHistogram();
+        top.record((1L << 31) - 1);
+
+        assertEquals(top.percentileTicks(1), histogram.percentileTicks(1), 0);
+        assertEquals(1L << 40, histogram.maxTicks());
+    }
+}
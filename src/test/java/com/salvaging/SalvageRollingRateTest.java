@@ -0,0 +1,91 @@
+package com.salvaging;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SalvageRollingRateTest
+{
+    private static final int BUCKET = SalvageRollingRate.BUCKET_TICKS;
+    private static final int FIVE_MINUTES = TickClock.secondsToTicks(5 * 60);
+
+    private final SalvageRollingRate rate = new SalvageRollingRate();
+
+    @Test
+    public void oneHookIsNotARate()
+    {
+        rate.add(100);
+        assertEquals(0, rate.ratePerHour(SalvageRateWindow.FIVE_MINUTES, 200), 0);
+    }
+
+    @Test
+    public void steadyRateInEveryWindow()
+    {
+        // a hook every 6 seconds is 600 an hour
+        long tick = 0;
+        for (; tick <= 2 * 6000; tick += 10)
+        {
+            rate.add(tick);
+        }
+        long now = tick - 10;
+
+        for (SalvageRateWindow window : SalvageRateWindow.values())
+        {
+            assertEquals(window.toString(), 600, rate.ratePerHour(window, now), 600 * 0.03);
+        }
+    }
+
+    @Test
+    public void beforeTheWindowIsFullTheRateIsSinceTheFirstHook()
+    {
+        rate.add(1000);
+        rate.add(1050);
+        rate.add(1100);
+        // 3 hooks in 100 ticks, one minute
+        assertEquals(180, rate.ratePerHour(SalvageRateWindow.SIXTY_MINUTES, 1100), 0.001);
+    }
+
+    @Test
+    public void hooksExpireOnTheBucketBoundary()
+    {
+        // five hooks in each of the first two buckets
+        for (long tick = 0; tick < 2 * BUCKET; tick += 10)
+        {
+            rate.add(tick);
+        }
+
+        // the window still reaches back to the second bucket...
+        long lastInWindow = BUCKET + FIVE_MINUTES - 1;
+        double stillThere = rate.ratePerHour(SalvageRateWindow.FIVE_MINUTES, lastInWindow);
+        assertEquals(5 / TickClock.ticksToHours(FIVE_MINUTES), stillThere, 0.001);
+
+        // ...and one tick later it has dropped out
+        assertEquals(0, rate.ratePerHour(SalvageRateWindow.FIVE_MINUTES, lastInWindow + 1), 0);
+        // while the longer windows still count every hook
+        assertEquals(10 / TickClock.ticksToHours(lastInWindow + 1),
+                rate.ratePerHour(SalvageRateWindow.FIFTEEN_MINUTES, lastInWindow + 1), 0.001);
+        assertEquals(10 / TickClock.ticksToHours(lastInWindow + 1),
+                rate.ratePerHour(SalvageRateWindow.SIXTY_MINUTES, lastInWindow + 1), 0.001);
+    }
+
+    @Test
+    public void gapLongerThanTheRing()
+    {
+        for (long tick = 0; tick < 1000; tick += 10)
+        {
+            rate.add(tick);
+        }
+
+        long later = 1000 + 3 * 6000;
+        for (SalvageRateWindow window : SalvageRateWindow.values())
+        {
+            assertEquals(window.toString(), 0, rate.ratePerHour(window, later), 0);
+        }
+
+        // nothing from before the gap is left over, nor subtracted twice
+        rate.add(later);
+        rate.add(later + 1);
+        double fiveMinutes = 2 / TickClock.ticksToHours((FIVE_MINUTES - BUCKET) + (later + 1) % BUCKET + 1);
+        assertEquals(fiveMinutes, rate.ratePerHour(SalvageRateWindow.FIVE_MINUTES, later + 1), 0.001);
+    }
+}
@@ -0,0 +1,149 @@
+package com.salvaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SalvageTimerWheelTest
+{
+    private static final int LAP = SalvageTimerWheel.WHEEL_TICKS;
+
+    // timer, tick per expiry
+    private final List<long[]> fired = new ArrayList<>();
+    private SalvageTimerWheel.Listener listener = (timer, tick) -> fired.add(new long[]{timer, tick});
+    private SalvageTimerWheel wheel;
+
+    @Before
+    public void setUp()
+    {
+        wheel = new SalvageTimerWheel(4, (timer, tick) -> listener.expired(timer, tick));
+    }
+
+    @Test
+    public void firesOnItsDeadline()
+    {
+        wheel.schedule(0, 5);
+        wheel.advanceTo(4);
+        assertEquals(0, fired.size());
+        assertTrue(wheel.isPending(0));
+
+        wheel.advanceTo(5);
+        assertFired(0, 5);
+        assertFalse(wheel.isPending(0));
+
+        wheel.advanceTo(5 + LAP);
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    public void dueExactlyOneLapAhead()
+    {
+        wheel.advanceTo(10);
+        // same bucket as the tick just fired
+        wheel.schedule(0, 10 + LAP);
+        wheel.advanceTo(10 + LAP - 1);
+        assertEquals(0, fired.size());
+
+        wheel.advanceTo(10 + LAP);
+        assertFired(0, 10 + LAP);
+    }
+
+    @Test
+    public void sharesABucketWithALaterLap()
+    {
+        wheel.schedule(0, 3 + LAP);
+        wheel.schedule(1, 3);
+        wheel.advanceTo(3);
+        assertFired(1, 3);
+        assertTrue(wheel.isPending(0));
+
+        wheel.advanceTo(3 + LAP);
+        assertEquals(2, fired.size());
+        assertEquals(0, fired.get(1)[0]);
+        assertEquals(3 + LAP, fired.get(1)[1]);
+    }
+
+    @Test
+    public void wrapsAroundTheWheel()
+    {
+        wheel.advanceTo(LAP - 2);
+        wheel.schedule(0, LAP + 1);
+        wheel.advanceTo(LAP + 1);
+        assertFired(0, LAP + 1);
+    }
+
+    @Test
+    public void rescheduleAndCancel()
+    {
+        wheel.schedule(0, 5);
+        wheel.schedule(0, 8);
+        wheel.schedule(1, 6);
+        wheel.cancel(1);
+        wheel.advanceTo(7);
+        assertEquals(0, fired.size());
+        assertFalse(wheel.isPending(1));
+
+        wheel.advanceTo(8);
+        assertFired(0, 8);
+    }
+
+    @Test
+    public void listenerReArmsTheTimer()
+    {
+        listener = (timer, tick) ->
+        {
+            fired.add(new long[]{timer, tick});
+            if (fired.size() < 3)
+            {
+                wheel.schedule(timer, tick + LAP);
+            }
+        };
+
+        wheel.schedule(2, 7);
+        for (long tick = 1; tick <= 7 + 3 * LAP; tick++)
+        {
+            wheel.advanceTo(tick);
+        }
+        assertEquals(3, fired.size());
+        assertEquals(7, fired.get(0)[1]);
+        assertEquals(7 + LAP, fired.get(1)[1]);
+        assertEquals(7 + 2 * LAP, fired.get(2)[1]);
+    }
+
+    @Test
+    public void pastDeadlineFiresOnTheNextAdvance()
+    {
+        wheel.advanceTo(20);
+        wheel.schedule(0, 12);
+        wheel.advanceTo(21);
+        assertFired(0, 21);
+    }
+
+    @Test
+    public void jumpFiresEverythingDue()
+    {
+        wheel.schedule(0, 100);
+        wheel.schedule(1, 3 * LAP);
+        wheel.schedule(2, 5 * LAP);
+        // a restored clock: more than a lap at once
+        wheel.advanceTo(4 * LAP);
+        assertEquals(2, fired.size());
+        assertTrue(wheel.isPending(2));
+
+        wheel.advanceTo(5 * LAP);
+        assertEquals(3, fired.size());
+        assertEquals(5 * LAP, fired.get(2)[1]);
+    }
+
+    private void assertFired(int timer, long tick)
+    {
+        assertEquals(1, fired.size());
+        assertEquals(timer, fired.get(0)[0]);
+        assertEquals(tick, fired.get(0)[1]);
+    }
+}